@@ -0,0 +1,50 @@
+import bench.LinkedCacheBenchmark;
+import bench.StampedListBenchmark;
+
+
+// Wraps library classes that implement no JDK interface the benchmarks
+// could use. The benchmarks sit in package bench and cannot name classes
+// in the default package, so they call these factories through
+// Subjects.adapter.
+
+public class BenchmarkAdapters {
+
+    private BenchmarkAdapters() {
+    }
+
+    public static LinkedCacheBenchmark.Cache linkedCache(int capacity, String policy) {
+        LinkedCache<Integer, Integer> cache = new LinkedCache<Integer, Integer>(capacity, LinkedCache.Policy.valueOf(policy));
+        return new LinkedCacheBenchmark.Cache() {
+            public Integer get(Integer key) {
+                return cache.get(key);
+            }
+
+            public void put(Integer key, Integer value) {
+                cache.put(key, value);
+            }
+        };
+    }
+
+    public static StampedListBenchmark.Table stampedTable(int size) {
+        StampedDoublyLinkedList<Integer> list = new StampedDoublyLinkedList<Integer>();
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return new StampedListBenchmark.Table() {
+            public Object get(int index) {
+                return list.get(index);
+            }
+
+            public boolean contains(Object o) {
+                return list.contains(o);
+            }
+
+            public void write(Integer value) {
+                list.update(inner -> {
+                    inner.removeFirst();
+                    return inner.add(value);
+                });
+            }
+        };
+    }
+}
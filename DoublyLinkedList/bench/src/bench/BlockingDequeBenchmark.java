@@ -0,0 +1,67 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+
+// Handoff throughput of DoublyLinkedBlockingDeque against the single-lock
+// java.util.concurrent.LinkedBlockingDeque. Producers add at the tail and
+// consumers take from the head of a deque bounded to 1024 elements that
+// starts half full. Both sides wait with a timeout, so a thread still
+// blocked when an iteration ends gives up instead of hanging the run. Set
+// the producer and consumer counts with -tg.
+//
+// Usage: java -jar target/benchmarks.jar bench.BlockingDequeBenchmark -tg 2,2
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Group)
+public class BlockingDequeBenchmark {
+
+    private static final int CAPACITY = 1024;
+    private static final Integer VALUE = 1;
+
+    @Param({"DoublyLinkedBlockingDeque", "LinkedBlockingDeque"})
+    public String implementation;
+
+    private BlockingDeque<Integer> deque;
+
+    @Setup
+    public void setUp() {
+        deque = Subjects.create(implementation, CAPACITY);
+        for (int i = 0; i < CAPACITY / 2; i++) {
+            deque.offerLast(i);
+        }
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public boolean putLast() throws InterruptedException {
+        return deque.offerLast(VALUE, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public Integer takeFirst() throws InterruptedException {
+        return deque.pollFirst(10, TimeUnit.MILLISECONDS);
+    }
+}
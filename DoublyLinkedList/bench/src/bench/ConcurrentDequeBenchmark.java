@@ -0,0 +1,66 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+
+// Throughput of ConcurrentDoublyLinkedDeque against a DoublyLinkedList that
+// is guarded by a single synchronized block. Every thread offers at one end
+// and polls at the other, so producers and consumers are mixed; one
+// operation is one offer and one poll. Both deques start with 1024
+// elements. Set the thread count with -t, once per count of interest.
+//
+// Usage: java -jar target/benchmarks.jar bench.ConcurrentDequeBenchmark -t 4
+// Sweep -t over 1, 2, 4 .. 64 on a machine with that many CPUs.
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ConcurrentDequeBenchmark {
+
+    private static final Integer VALUE = 1;
+
+    private Deque<Integer> lockFree;
+    // The coarse grained baseline the lock-free deque replaces
+    private Deque<Integer> locked;
+
+    @Setup
+    public void setUp() {
+        lockFree = Subjects.create("ConcurrentDoublyLinkedDeque");
+        locked = Subjects.create("DoublyLinkedList");
+        for (int i = 0; i < 1024; i++) {
+            lockFree.offerLast(i);
+            locked.offerLast(i);
+        }
+    }
+
+    @Benchmark
+    public Integer lockFree() {
+        lockFree.offerLast(VALUE);
+        return lockFree.pollFirst();
+    }
+
+    @Benchmark
+    public Integer synchronizedList() {
+        synchronized (locked) {
+            locked.offerLast(VALUE);
+        }
+        synchronized (locked) {
+            return locked.pollFirst();
+        }
+    }
+}
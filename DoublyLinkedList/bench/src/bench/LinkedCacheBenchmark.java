@@ -0,0 +1,114 @@
+package bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+// Read-through cache workload on LinkedCache (LRU and LFU) against an
+// access-ordered LinkedHashMap that evicts its eldest entry. Keys follow a
+// skewed distribution over ten times as many keys as the cache holds; a
+// miss is followed by a put of the key. The hits and misses counters give
+// the hit rate of each cache.
+//
+// Usage: java -jar target/benchmarks.jar bench.LinkedCacheBenchmark -prof gc
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class LinkedCacheBenchmark {
+
+    private static final int KEYS = 1 << 20;
+
+    public interface Cache {
+        Integer get(Integer key);
+
+        void put(Integer key, Integer value);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Param({"10000"})
+    public int capacity;
+
+    @Param({"LRU", "LFU", "LinkedHashMap"})
+    public String cache;
+
+    private Cache target;
+    private Integer[] keys;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Squaring a uniform draw makes low keys far more popular
+        Random random = new Random(42);
+        keys = new Integer[KEYS];
+        int keySpace = capacity * 10;
+        for (int i = 0; i < KEYS; i++) {
+            double u = random.nextDouble();
+            keys[i] = (int) (u * u * keySpace);
+        }
+        target = cache.equals("LinkedHashMap") ? linkedHashMap(capacity) : Subjects.adapter("linkedCache", capacity, cache);
+    }
+
+    @Benchmark
+    public Integer readThrough(Outcomes outcomes) {
+        Integer key = keys[next];
+        next = (next + 1) & (KEYS - 1);
+        Integer value = target.get(key);
+        if (value != null) {
+            outcomes.hits++;
+        } else {
+            outcomes.misses++;
+            target.put(key, key);
+        }
+        return value;
+    }
+
+    private static Cache linkedHashMap(int capacity) {
+        Map<Integer, Integer> map = new LinkedHashMap<Integer, Integer>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > capacity;
+            }
+        };
+        return new Cache() {
+            public Integer get(Integer key) {
+                return map.get(key);
+            }
+
+            public void put(Integer key, Integer value) {
+                map.put(key, value);
+            }
+        };
+    }
+}
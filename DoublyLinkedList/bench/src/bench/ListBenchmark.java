@@ -0,0 +1,234 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+
+// Time per operation of DoublyLinkedList against java.util.LinkedList,
+// ArrayList and ArrayDeque at sizes from 10 up to 10,000,000, growing
+// tenfold. Run with -prof gc for bytes allocated per operation.
+//
+// Every trial fills a fresh collection with 0 .. size-1. Positions and
+// search keys are drawn in setup from a Random with a fixed seed and then
+// cycled through, so two runs do the same work and no drawing or boxing is
+// measured. Mutating operations come in pairs that leave the size
+// unchanged. Each state names the implementations that support its
+// operations: List, Deque or any Collection.
+//
+// Usage: java -jar target/benchmarks.jar bench.ListBenchmark -prof gc [-p size=10,1000]
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+public class ListBenchmark {
+
+    private static final long SEED = 42;
+    private static final int DRAWS = 1024;
+    private static final Integer VALUE = 1_000_000_007;
+
+    @State(Scope.Thread)
+    public abstract static class Filled {
+        @Param({"10", "100", "1000", "10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        private int[] positions;
+        private Integer[] keys;
+        private int next;
+
+        void draw() {
+            Random random = new Random(SEED);
+            positions = new int[DRAWS];
+            keys = new Integer[DRAWS];
+            for (int i = 0; i < DRAWS; i++) {
+                positions[i] = random.nextInt(size);
+                keys[i] = positions[i];
+            }
+        }
+
+        <C extends Collection<Integer>> C fill(C target) {
+            for (int i = 0; i < size; i++) {
+                target.add(i);
+            }
+            return target;
+        }
+
+        int nextPosition() {
+            int position = positions[next];
+            next = (next + 1) & (DRAWS - 1);
+            return position;
+        }
+
+        Integer nextKey() {
+            Integer key = keys[next];
+            next = (next + 1) & (DRAWS - 1);
+            return key;
+        }
+    }
+
+    public static class ListState extends Filled {
+        @Param({"DoublyLinkedList", "LinkedList", "ArrayList"})
+        public String implementation;
+
+        List<Integer> list;
+        ListIterator<Integer> iterator;
+        int sequential;
+
+        @Setup
+        public void setUp() {
+            draw();
+            list = fill(Subjects.<List<Integer>>create(implementation));
+            iterator = list.listIterator();
+        }
+    }
+
+    public static class DequeState extends Filled {
+        @Param({"DoublyLinkedList", "LinkedList", "ArrayDeque"})
+        public String implementation;
+
+        Deque<Integer> deque;
+
+        @Setup
+        public void setUp() {
+            draw();
+            deque = fill(Subjects.<Deque<Integer>>create(implementation));
+        }
+    }
+
+    public static class CollectionState extends Filled {
+        @Param({"DoublyLinkedList", "LinkedList", "ArrayList", "ArrayDeque"})
+        public String implementation;
+
+        Collection<Integer> collection;
+        Supplier<Collection<Integer>> factory;
+
+        @Setup
+        public void setUp() {
+            draw();
+            factory = Subjects.factory(implementation);
+            collection = fill(factory.get());
+        }
+    }
+
+    // List
+
+    @Benchmark
+    public Integer getRandom(ListState state) {
+        return state.list.get(state.nextPosition());
+    }
+
+    @Benchmark
+    public Integer getSequential(ListState state) {
+        int position = state.sequential;
+        state.sequential = position + 1 == state.size ? 0 : position + 1;
+        return state.list.get(position);
+    }
+
+    @Benchmark
+    public Integer setRandom(ListState state) {
+        int position = state.nextPosition();
+        return state.list.set(position, state.list.set(position, VALUE));
+    }
+
+    @Benchmark
+    public Integer addRemoveRandom(ListState state) {
+        int position = state.nextPosition();
+        state.list.add(position, VALUE);
+        return state.list.remove(position);
+    }
+
+    @Benchmark
+    public int indexOfRandom(ListState state) {
+        return state.list.indexOf(state.nextKey());
+    }
+
+    @Benchmark
+    public Integer listIteratorRemoveAdd(ListState state) {
+        if (!state.iterator.hasNext()) {
+            state.iterator = state.list.listIterator();
+        }
+        Integer value = state.iterator.next();
+        state.iterator.remove();
+        state.iterator.add(value);
+        return value;
+    }
+
+    // Deque
+
+    @Benchmark
+    public Integer addFirstRemoveFirst(DequeState state) {
+        state.deque.addFirst(VALUE);
+        return state.deque.removeFirst();
+    }
+
+    @Benchmark
+    public Integer addLastRemoveLast(DequeState state) {
+        state.deque.addLast(VALUE);
+        return state.deque.removeLast();
+    }
+
+    @Benchmark
+    public boolean offerLastPollFirst(DequeState state) {
+        return state.deque.offerLast(state.deque.pollFirst());
+    }
+
+    @Benchmark
+    public void peekFirstPeekLast(DequeState state, Blackhole blackhole) {
+        blackhole.consume(state.deque.peekFirst());
+        blackhole.consume(state.deque.peekLast());
+    }
+
+    @Benchmark
+    public void descendingIterator(DequeState state, Blackhole blackhole) {
+        Iterator<Integer> iterator = state.deque.descendingIterator();
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    // Collection
+
+    @Benchmark
+    public void iterator(CollectionState state, Blackhole blackhole) {
+        for (Integer value : state.collection) {
+            blackhole.consume(value);
+        }
+    }
+
+    @Benchmark
+    public boolean containsRandom(CollectionState state) {
+        return state.collection.contains(state.nextKey());
+    }
+
+    @Benchmark
+    public Object[] toArray(CollectionState state) {
+        return state.collection.toArray();
+    }
+
+    @Benchmark
+    public Collection<Integer> addAllCopy(CollectionState state) {
+        Collection<Integer> copy = state.factory.get();
+        copy.addAll(state.collection);
+        return copy;
+    }
+}
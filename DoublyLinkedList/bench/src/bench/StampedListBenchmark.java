@@ -0,0 +1,98 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+// Read-mostly throughput of StampedDoublyLinkedList against a DoublyLinkedList
+// behind Collections.synchronizedList. Every thread runs the same mix: a
+// read is get(i) or contains(x) on a 256 element list, a write replaces the
+// first element with a new last one. Runs on as many threads as there are
+// CPUs unless -t says otherwise.
+//
+// Usage: java -jar target/benchmarks.jar bench.StampedListBenchmark [-t threads]
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class StampedListBenchmark {
+
+    private static final int SIZE = 256;
+
+    public interface Table {
+        Object get(int index);
+
+        boolean contains(Object o);
+
+        void write(Integer value);
+    }
+
+    @Param({"100", "99", "90", "50"})
+    public int readPercentage;
+
+    @Param({"stamped", "synchronized"})
+    public String table;
+
+    private Table target;
+
+    @Setup
+    public void setUp() {
+        target = table.equals("stamped") ? Subjects.adapter("stampedTable", SIZE) : synchronizedTable();
+    }
+
+    @Benchmark
+    public Object mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int dice = random.nextInt(100);
+        if (dice >= readPercentage) {
+            target.write(random.nextInt());
+            return null;
+        } else if ((dice & 1) == 0) {
+            return target.get(random.nextInt(SIZE));
+        } else {
+            return target.contains(random.nextInt(SIZE));
+        }
+    }
+
+    private static Table synchronizedTable() {
+        List<Integer> list = Collections.synchronizedList(Subjects.<List<Integer>>create("DoublyLinkedList"));
+        for (int i = 0; i < SIZE; i++) {
+            list.add(i);
+        }
+        return new Table() {
+            public Object get(int index) {
+                return list.get(index);
+            }
+
+            public boolean contains(Object o) {
+                return list.contains(o);
+            }
+
+            public void write(Integer value) {
+                synchronized (list) {
+                    list.remove(0);
+                    list.add(value);
+                }
+            }
+        };
+    }
+}
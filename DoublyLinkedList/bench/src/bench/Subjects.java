@@ -0,0 +1,86 @@
+package bench;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+
+// Makes the collections under test. The library lives in the default
+// package, which code in a named package cannot refer to, and JMH only
+// generates benchmarks in a named package. Benchmarks therefore make
+// library objects by class name and use them through the JDK interfaces
+// they implement. Classes without one are wrapped by the static factories
+// of BenchmarkAdapters, which sits in the default package next to them.
+//
+// A simple name is looked up in the default package first, then in
+// java.util and java.util.concurrent, so parameters can read
+// "DoublyLinkedList", "LinkedList" or "LinkedBlockingDeque".
+
+final class Subjects {
+
+    private static final String[] PACKAGES = {"", "java.util.", "java.util.concurrent."};
+    private static final String ADAPTERS = "BenchmarkAdapters";
+
+    private Subjects() {
+    }
+
+    static <T> T create(String name) {
+        return Subjects.<T>factory(name).get();
+    }
+
+    // Calls the constructor of name that takes one int, such as a capacity
+    @SuppressWarnings("unchecked")
+    static <T> T create(String name, int argument) {
+        try {
+            return (T) classFor(name).getConstructor(int.class).newInstance(argument);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + name, e);
+        }
+    }
+
+    // A no-argument constructor of name, for benchmarks that make new
+    // collections while measuring
+    @SuppressWarnings("unchecked")
+    static <T> Supplier<T> factory(String name) {
+        Constructor<?> constructor;
+        try {
+            constructor = classFor(name).getConstructor();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + name, e);
+        }
+        return () -> {
+            try {
+                return (T) constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create " + name, e);
+            }
+        };
+    }
+
+    // Calls the BenchmarkAdapters factory with the given name and number
+    // of arguments
+    @SuppressWarnings("unchecked")
+    static <T> T adapter(String factory, Object... arguments) {
+        try {
+            for (Method method : Class.forName(ADAPTERS).getMethods()) {
+                if (method.getName().equals(factory) && method.getParameterCount() == arguments.length) {
+                    return (T) method.invoke(null, arguments);
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot call " + ADAPTERS + "." + factory, e);
+        }
+        throw new IllegalArgumentException("No adapter " + factory + " taking " + arguments.length + " arguments");
+    }
+
+    private static Class<?> classFor(String name) throws ClassNotFoundException {
+        for (String prefix : PACKAGES) {
+            try {
+                return Class.forName(prefix + name);
+            } catch (ClassNotFoundException e) {
+                // Try the next package
+            }
+        }
+        throw new ClassNotFoundException(name);
+    }
+}
@@ -0,0 +1,384 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+// Asynchronous consumer side for a DoublyLinkedList used as a queue.
+//
+// pollFirstAsync returns a future that completes with the first element,
+// at once if there is one, or otherwise with the next element offered.
+// Publishers hand elements to Flow subscribers as they request them,
+// either one per onNext or in batches of up to maxBatch. Every element
+// goes to exactly one consumer: waiting futures are served first, in the
+// order they were made, then subscribers with outstanding demand.
+//
+// Nothing here blocks a thread. State is guarded by a ReentrantLock, never
+// by synchronized, so virtual threads are not pinned, and futures and
+// subscribers are always called outside the lock. Subscribers are called
+// on the executor, one signal at a time. After close(), offers are
+// refused, waiting futures fail with IllegalStateException and subscribers
+// complete once the remaining elements are delivered. A subscriber whose
+// onNext throws is cancelled and gets the exception through onError; the
+// element or batch it threw on is not offered again. Null elements are
+// not permitted.
+
+public class AsyncDoublyLinkedDeque<T> {
+
+    private final DoublyLinkedList<T> elements = new DoublyLinkedList<T>();
+    private final DoublyLinkedList<CompletableFuture<T>> waiters = new DoublyLinkedList<CompletableFuture<T>>();
+    private final DoublyLinkedList<DrainSubscription> subscriptions = new DoublyLinkedList<DrainSubscription>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Executor executor;
+    // Subscriptions with demand that found no elements
+    private int parked;
+    private boolean closed;
+
+    // Constructors
+    public AsyncDoublyLinkedDeque() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public AsyncDoublyLinkedDeque(Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("Executor cannot be null");
+        }
+        this.executor = executor;
+    }
+
+    // Producers
+
+    public boolean offerFirst(T value) {
+        return offer(value, true);
+    }
+
+    public boolean offerLast(T value) {
+        return offer(value, false);
+    }
+
+    // Consumers
+
+    public T pollFirst() {
+        lock.lock();
+        try {
+            return elements.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T pollLast() {
+        lock.lock();
+        try {
+            return elements.pollLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Cancelling the future gives up its place in line
+    public CompletableFuture<T> pollFirstAsync() {
+        CompletableFuture<T> future;
+        NodeRef<CompletableFuture<T>> ref;
+        lock.lock();
+        try {
+            T value = elements.pollFirst();
+            if (value != null) {
+                return CompletableFuture.completedFuture(value);
+            }
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("The deque is closed"));
+            }
+            future = new CompletableFuture<T>();
+            ref = waiters.addLastHandle(future);
+        } finally {
+            lock.unlock();
+        }
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled()) {
+                lock.lock();
+                try {
+                    if (ref.isLinked()) {
+                        waiters.removeHandle(ref);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+        return future;
+    }
+
+    public Flow.Publisher<T> publisher() {
+        return subscriber -> subscribe(subscriber, 1, false);
+    }
+
+    public Flow.Publisher<List<T>> batchPublisher(int maxBatch) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        return subscriber -> subscribe(subscriber, maxBatch, true);
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return elements.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void close() {
+        List<CompletableFuture<T>> failed = new ArrayList<CompletableFuture<T>>();
+        List<DrainSubscription> woken;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            waiters.drainTo(failed);
+            woken = new ArrayList<DrainSubscription>(subscriptions);
+            // Cleared with the count, so a later cancel cannot take parked
+            // below zero
+            for (DrainSubscription subscription : woken) {
+                subscription.parked = false;
+            }
+            parked = 0;
+        } finally {
+            lock.unlock();
+        }
+        for (CompletableFuture<T> future : failed) {
+            future.completeExceptionally(new IllegalStateException("The deque is closed"));
+        }
+        for (DrainSubscription subscription : woken) {
+            subscription.schedule();
+        }
+    }
+
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // Helper Methods
+
+    private boolean offer(T value, boolean first) {
+        if (value == null) {
+            throw new NullPointerException("Null elements are not permitted");
+        }
+        while (true) {
+            CompletableFuture<T> waiter;
+            List<DrainSubscription> woken = null;
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                waiter = waiters.pollFirst();
+                if (waiter == null) {
+                    if (first) {
+                        elements.addFirst(value);
+                    } else {
+                        elements.addLast(value);
+                    }
+                    if (parked > 0) {
+                        woken = unparkAll();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (waiter == null) {
+                if (woken != null) {
+                    for (DrainSubscription subscription : woken) {
+                        subscription.schedule();
+                    }
+                }
+                return true;
+            }
+            // A waiter cancelled in the meantime refuses the value, so it
+            // goes to the next one
+            if (waiter.complete(value)) {
+                return true;
+            }
+        }
+    }
+
+    // Called with the lock held
+    private List<DrainSubscription> unparkAll() {
+        List<DrainSubscription> woken = new ArrayList<DrainSubscription>(parked);
+        for (DrainSubscription subscription : subscriptions) {
+            if (subscription.parked) {
+                subscription.parked = false;
+                woken.add(subscription);
+            }
+        }
+        parked = 0;
+        return woken;
+    }
+
+    // The one cast of a subscriber: it is only ever given elements, or
+    // lists of them when batched, matching the publisher it came from
+    @SuppressWarnings("unchecked")
+    private void subscribe(Flow.Subscriber<?> subscriber, int maxBatch, boolean batched) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+        DrainSubscription subscription = new DrainSubscription((Flow.Subscriber<? super Object>) subscriber, maxBatch, batched);
+        lock.lock();
+        try {
+            subscription.ref = subscriptions.addLastHandle(subscription);
+        } finally {
+            lock.unlock();
+        }
+        subscriber.onSubscribe(subscription);
+        // Lets a subscriber of a closed deque complete without requesting
+        subscription.schedule();
+    }
+
+    // Takes up to max elements for subscription. Returns null when there
+    // are none, after parking the subscription if it has demand or marking
+    // it done if the deque is closed.
+    private List<T> take(DrainSubscription subscription, int max) {
+        lock.lock();
+        try {
+            if (elements.isEmpty()) {
+                if (closed) {
+                    subscription.done = true;
+                } else if (max > 0 && !subscription.parked) {
+                    subscription.parked = true;
+                    parked++;
+                }
+                return null;
+            }
+            if (max == 0) {
+                return null;
+            }
+            List<T> batch = new ArrayList<T>(Math.min(max, elements.size()));
+            elements.drainTo(batch, max);
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(DrainSubscription subscription) {
+        lock.lock();
+        try {
+            if (subscription.ref.isLinked()) {
+                subscriptions.removeHandle(subscription.ref);
+            }
+            if (subscription.parked) {
+                subscription.parked = false;
+                parked--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Delivers to one subscriber from whichever thread of the executor runs
+    // it. work counts the reasons to run again, so request, cancel and new
+    // elements never start a second drain or recurse into onNext.
+    private final class DrainSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super Object> subscriber;
+        private final int maxBatch;
+        private final boolean batched;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile boolean invalidRequest;
+        NodeRef<DrainSubscription> ref;
+        // Guarded by the deque lock
+        boolean parked;
+        boolean done;
+
+        DrainSubscription(Flow.Subscriber<? super Object> subscriber, int maxBatch, boolean batched) {
+            this.subscriber = subscriber;
+            this.maxBatch = maxBatch;
+            this.batched = batched;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = true;
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                release(this);
+            }
+        }
+
+        void schedule() {
+            if (work.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            while (!cancelled) {
+                if (invalidRequest) {
+                    cancel();
+                    subscriber.onError(new IllegalArgumentException("Requested demand must be positive"));
+                    return;
+                }
+                long requested = demand.get();
+                List<T> batch = take(this, requested > 0 ? maxBatch : 0);
+                if (batch == null) {
+                    if (done) {
+                        cancel();
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                try {
+                    subscriber.onNext(batched ? batch : batch.get(0));
+                } catch (Throwable e) {
+                    // A subscriber that throws has broken the contract. As
+                    // with SubmissionPublisher it is cancelled and told why;
+                    // the elements it was given stay taken, since it may
+                    // have handled some of them before throwing.
+                    cancel();
+                    subscriber.onError(e);
+                    return;
+                }
+                if (requested != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncDoublyLinkedDequeTest {
+
+    private AsyncDoublyLinkedDeque<Integer> deque;
+
+    @BeforeEach
+    void setUp() {
+        // [4 3 5 7 1 6], delivering on the calling thread
+        deque = new AsyncDoublyLinkedDeque<Integer>(Runnable::run);
+        for (int value : new int[] {4, 3, 5, 7, 1, 6}) {
+            deque.offerLast(value);
+        }
+        assertEquals(6, deque.size());
+    }
+
+    @Test
+    void testPollFirstAsync_emptyDeque_completesOnNextOffer() throws Exception {
+        AsyncDoublyLinkedDeque<Integer> empty = new AsyncDoublyLinkedDeque<Integer>();
+        CompletableFuture<Integer> first = empty.pollFirstAsync();
+        CompletableFuture<Integer> cancelled = empty.pollFirstAsync();
+        CompletableFuture<Integer> third = empty.pollFirstAsync();
+        assertFalse(first.isDone());
+        cancelled.cancel(false);
+
+        assertTrue(empty.offerLast(8));
+        assertTrue(empty.offerFirst(9));
+        assertEquals(8, first.get());
+        assertEquals(9, third.get());
+        assertTrue(empty.isEmpty());
+        assertEquals(4, deque.pollFirstAsync().getNow(null));
+    }
+
+    @Test
+    void testClose_pendingFuture_failsAndRefusesOffers() {
+        AsyncDoublyLinkedDeque<Integer> empty = new AsyncDoublyLinkedDeque<Integer>();
+        CompletableFuture<Integer> pending = empty.pollFirstAsync();
+        empty.close();
+        ExecutionException error = assertThrows(ExecutionException.class , () -> {
+            pending.get();
+        });
+        assertTrue(error.getCause() instanceof IllegalStateException);
+        assertFalse(empty.offerLast(1));
+        assertTrue(empty.pollFirstAsync().isCompletedExceptionally());
+    }
+
+    @Test
+    void testPublisher_limitedDemand_deliversOnlyWhatWasRequested() {
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<Integer>();
+        deque.publisher().subscribe(subscriber);
+        subscriber.subscription.request(2);
+        assertEquals(List.of(4, 3), subscriber.received);
+        assertEquals(4, deque.size());
+
+        subscriber.subscription.request(6);
+        assertEquals(List.of(4, 3, 5, 7, 1, 6), subscriber.received);
+        deque.offerLast(2);
+        deque.offerLast(8);
+        assertEquals(List.of(4, 3, 5, 7, 1, 6, 2, 8), subscriber.received);
+        deque.offerLast(9);
+        assertEquals(1, deque.size());
+
+        deque.close();
+        assertFalse(subscriber.completed);
+        subscriber.subscription.request(1);
+        assertEquals(9, subscriber.received.get(8));
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void testBatchPublisher_eachRequest_deliversUpToBatchSize() {
+        RecordingSubscriber<List<Integer>> subscriber = new RecordingSubscriber<List<Integer>>();
+        deque.batchPublisher(4).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertEquals(List.of(List.of(4, 3, 5, 7)), subscriber.received);
+        subscriber.subscription.request(2);
+        assertEquals(List.of(List.of(4, 3, 5, 7), List.of(1, 6)), subscriber.received);
+        deque.offerLast(2);
+        assertEquals(List.of(2), subscriber.received.get(2));
+
+        subscriber.subscription.cancel();
+        deque.offerLast(8);
+        assertEquals(3, subscriber.received.size());
+        assertEquals(1, deque.size());
+    }
+
+    @Test
+    void testRequest_nonPositiveDemand_signalsError() {
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<Integer>();
+        deque.publisher().subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        subscriber.subscription.request(3);
+        assertTrue(subscriber.received.isEmpty());
+        assertEquals(6, deque.size());
+    }
+
+    @Test
+    void testPublisher_onNextThrows_cancelsAndSignalsError() {
+        IllegalStateException failure = new IllegalStateException("Rejected");
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer item) {
+                if (item == 5) {
+                    throw failure;
+                }
+                super.onNext(item);
+            }
+        };
+        deque.publisher().subscribe(subscriber);
+        subscriber.subscription.request(4);
+        assertEquals(List.of(4, 3), subscriber.received);
+        assertSame(failure, subscriber.error);
+        assertEquals(3, deque.size());
+
+        subscriber.subscription.request(1);
+        deque.offerLast(2);
+        assertEquals(2, subscriber.received.size());
+        assertEquals(7, deque.pollFirst());
+    }
+
+    @Test
+    void testPublisher_concurrentProducersAndConsumers_deliversEachElementOnce() throws InterruptedException {
+        AsyncDoublyLinkedDeque<Integer> shared = new AsyncDoublyLinkedDeque<Integer>();
+        int perProducer = 5000;
+        List<Integer> received = new ArrayList<Integer>();
+        CountDownLatch done = new CountDownLatch(2 * perProducer);
+        for (int i = 0; i < 3; i++) {
+            shared.batchPublisher(16).subscribe(new Flow.Subscriber<List<Integer>>() {
+                private Flow.Subscription subscription;
+
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                public void onNext(List<Integer> batch) {
+                    synchronized (received) {
+                        received.addAll(batch);
+                    }
+                    for (int j = 0; j < batch.size(); j++) {
+                        done.countDown();
+                    }
+                    subscription.request(1);
+                }
+
+                public void onError(Throwable error) {
+                }
+
+                public void onComplete() {
+                }
+            });
+        }
+        Thread[] producers = new Thread[2];
+        for (int p = 0; p < producers.length; p++) {
+            int base = p * perProducer;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    shared.offerLast(base + i);
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        synchronized (received) {
+            assertEquals(2 * perProducer, received.size());
+            assertEquals(2 * perProducer, received.stream().distinct().count());
+        }
+    }
+
+    private static class RecordingSubscriber<E> implements Flow.Subscriber<E> {
+        final List<E> received = new ArrayList<E>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        public void onNext(E item) {
+            received.add(item);
+        }
+
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
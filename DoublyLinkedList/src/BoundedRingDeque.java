@@ -0,0 +1,525 @@
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+// Deque of at most capacity elements, kept in a circular array that is
+// allocated up front, so once it is full adding and removing allocate
+// nothing. Adding to a full deque follows the overflow policy:
+//
+//   OVERWRITE_OLDEST  the element at the other end is dropped to make
+//                     room, so the deque keeps the latest capacity elements
+//   REJECT            offer returns false and add throws
+//   BLOCK             the caller waits until an element is removed
+//
+// A BLOCK offer that is interrupted while waiting returns false with the
+// interrupt status set. Thread safe through a single lock. Iterators work
+// on a snapshot. Null elements are not permitted.
+
+public class BoundedRingDeque<T> extends AbstractCollection<T> implements Deque<T> {
+
+    public enum OverflowPolicy { OVERWRITE_OLDEST, REJECT, BLOCK }
+
+    private final Object[] slots;
+    private final OverflowPolicy policy;
+    private int head;
+    private int count;
+    private long dropped;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // Constructors
+    public BoundedRingDeque(int capacity) {
+        this(capacity, OverflowPolicy.OVERWRITE_OLDEST);
+    }
+
+    public BoundedRingDeque(int capacity, OverflowPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (policy == null) {
+            throw new NullPointerException("Policy cannot be null");
+        }
+        this.slots = new Object[capacity];
+        this.policy = policy;
+    }
+
+    // Collection Interface Override Requirements
+
+    @Override
+    public boolean add(T value) {
+        addLast(value);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                slots[slot(i)] = null;
+            }
+            head = 0;
+            count = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o != null && find(o, false) >= 0;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new SnapshotIterator(false);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        lock.lock();
+        try {
+            return copyInto(new Object[count]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> E[] toArray(E[] array) {
+        lock.lock();
+        try {
+            if (array.length < count) {
+                array = (E[]) Array.newInstance(array.getClass().getComponentType(), count);
+            } else if (array.length > count) {
+                array[count] = null;
+            }
+            return (E[]) copyInto(array);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deque Interface Method Requirements
+
+    @Override
+    public void addFirst(T value) {
+        if (!offerFirst(value)) {
+            throw new IllegalStateException("Deque full");
+        }
+    }
+
+    @Override
+    public void addLast(T value) {
+        if (!offerLast(value)) {
+            throw new IllegalStateException("Deque full");
+        }
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new SnapshotIterator(true);
+    }
+
+    @Override
+    public T element() {
+        return getFirst();
+    }
+
+    @Override
+    public T getFirst() {
+        T value = peekFirst();
+        if (value == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return value;
+    }
+
+    @Override
+    public T getLast() {
+        T value = peekLast();
+        if (value == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return value;
+    }
+
+    @Override
+    public boolean offer(T value) {
+        return offerLast(value);
+    }
+
+    @Override
+    public boolean offerFirst(T value) {
+        return insert(value, true);
+    }
+
+    @Override
+    public boolean offerLast(T value) {
+        return insert(value, false);
+    }
+
+    @Override
+    public T peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public T peekFirst() {
+        lock.lock();
+        try {
+            return elementAt(head);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T peekLast() {
+        lock.lock();
+        try {
+            return count == 0 ? null : elementAt(slot(count - 1));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public T pollFirst() {
+        lock.lock();
+        try {
+            return count == 0 ? null : removeFirstSlot(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T pollLast() {
+        lock.lock();
+        try {
+            return count == 0 ? null : removeLastSlot(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public void push(T value) {
+        addFirst(value);
+    }
+
+    @Override
+    public T remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public T removeFirst() {
+        T value = pollFirst();
+        if (value == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return value;
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        return o != null && removeOccurrence(o, false);
+    }
+
+    @Override
+    public T removeLast() {
+        T value = pollLast();
+        if (value == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return value;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        return o != null && removeOccurrence(o, true);
+    }
+
+    // Blocking Removal
+
+    public T takeFirst() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return removeFirstSlot(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T takeLast() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return removeLastSlot(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Ring Buffer
+
+    // Copies the elements from first to last into array with at most two
+    // bulk copies. A larger array gets a null after the last element, a
+    // smaller one is replaced by a new array of the same type.
+    public T[] snapshot(T[] array) {
+        return toArray(array);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return slots.length - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public OverflowPolicy overflowPolicy() {
+        return policy;
+    }
+
+    // Elements lost to overflow: overwritten under OVERWRITE_OLDEST or
+    // refused under REJECT
+    public long droppedCount() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        for (Object data : toArray()) {
+            if (output.length() > 0) {
+                output.append(" ==> ");
+            }
+            output.append(data);
+        }
+        return output.toString();
+    }
+
+
+    // Helper Methods
+
+    // Slots hold elements in an Object[], so reading one back is unchecked
+    @SuppressWarnings("unchecked")
+    private T elementAt(int slot) {
+        return (T) slots[slot];
+    }
+
+    private boolean insert(T value, boolean first) {
+        if (value == null) {
+            throw new NullPointerException("Null elements are not permitted");
+        }
+        lock.lock();
+        try {
+            if (count == slots.length) {
+                switch (policy) {
+                    case REJECT:
+                        dropped++;
+                        return false;
+                    case OVERWRITE_OLDEST:
+                        dropped++;
+                        if (first) {
+                            removeLastSlot(false);
+                        } else {
+                            removeFirstSlot(false);
+                        }
+                        break;
+                    case BLOCK:
+                        try {
+                            while (count == slots.length) {
+                                notFull.await();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                        break;
+                }
+            }
+            if (first) {
+                head = head == 0 ? slots.length - 1 : head - 1;
+                slots[head] = value;
+            } else {
+                slots[slot(count)] = value;
+            }
+            count++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Position in slots of the element offset places after the first
+    private int slot(int offset) {
+        int position = head + offset;
+        return position < slots.length ? position : position - slots.length;
+    }
+
+    private T removeFirstSlot(boolean signal) {
+        T value = elementAt(head);
+        slots[head] = null;
+        head = head == slots.length - 1 ? 0 : head + 1;
+        count--;
+        if (signal) {
+            notFull.signal();
+        }
+        return value;
+    }
+
+    private T removeLastSlot(boolean signal) {
+        int last = slot(count - 1);
+        T value = elementAt(last);
+        slots[last] = null;
+        count--;
+        if (signal) {
+            notFull.signal();
+        }
+        return value;
+    }
+
+    // Offset of the first (or last) element equal to o, or -1
+    private int find(Object o, boolean fromLast) {
+        lock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                int offset = fromLast ? count - 1 - i : i;
+                if (o.equals(slots[slot(offset)])) {
+                    return offset;
+                }
+            }
+            return -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean removeOccurrence(Object o, boolean fromLast) {
+        lock.lock();
+        try {
+            int offset = find(o, fromLast);
+            if (offset < 0) {
+                return false;
+            }
+            removeAt(offset);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Closes the gap by shifting the later elements one slot back
+    private void removeAt(int offset) {
+        for (int i = offset; i < count - 1; i++) {
+            slots[slot(i)] = slots[slot(i + 1)];
+        }
+        slots[slot(count - 1)] = null;
+        count--;
+        notFull.signal();
+    }
+
+    private Object[] copyInto(Object[] array) {
+        int firstPart = Math.min(count, slots.length - head);
+        System.arraycopy(slots, head, array, 0, firstPart);
+        System.arraycopy(slots, 0, array, firstPart, count - firstPart);
+        return array;
+    }
+
+    // Walks a copy taken when it was created. remove() removes the last
+    // returned element itself, if it is still in the deque.
+    private final class SnapshotIterator implements Iterator<T> {
+        private final Object[] values;
+        private final boolean descending;
+        private int position;
+        private Object lastReturned;
+
+        SnapshotIterator(boolean descending) {
+            this.values = toArray();
+            this.descending = descending;
+        }
+
+        public boolean hasNext() {
+            return position < values.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (position >= values.length) {
+                throw new NoSuchElementException("No next element exists.");
+            }
+            int next = position++;
+            lastReturned = values[descending ? values.length - 1 - next : next];
+            return (T) lastReturned;
+        }
+
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException("No element to remove");
+            }
+            lock.lock();
+            try {
+                for (int i = 0; i < count; i++) {
+                    if (slots[slot(i)] == lastReturned) {
+                        removeAt(i);
+                        break;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            lastReturned = null;
+        }
+    }
+}
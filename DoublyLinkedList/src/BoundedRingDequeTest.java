@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedRingDequeTest {
+
+    private BoundedRingDeque<Integer> overwriting;
+    private BoundedRingDeque<Integer> rejecting;
+
+    @BeforeEach
+    void setUp() {
+        // [4 3 5 7 1 6], both full
+        overwriting = new BoundedRingDeque<Integer>(6);
+        rejecting = new BoundedRingDeque<Integer>(6, BoundedRingDeque.OverflowPolicy.REJECT);
+        for (int value : new int[] {4, 3, 5, 7, 1, 6}) {
+            overwriting.addLast(value);
+            rejecting.addLast(value);
+        }
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", overwriting.toString());
+    }
+
+    @Test
+    void testOfferLast_fullOverwritingDeque_dropsOldestElement() {
+        assertTrue(overwriting.offerLast(8));
+        assertTrue(overwriting.offerLast(9));
+        assertEquals("5 ==> 7 ==> 1 ==> 6 ==> 8 ==> 9", overwriting.toString());
+        overwriting.addFirst(2);
+        assertEquals("2 ==> 5 ==> 7 ==> 1 ==> 6 ==> 8", overwriting.toString());
+        assertEquals(3, overwriting.droppedCount());
+        assertEquals(6, overwriting.size());
+    }
+
+    @Test
+    void testOfferLast_fullRejectingDeque_returnsFalse() {
+        assertFalse(rejecting.offerLast(8));
+        assertThrows(IllegalStateException.class , () -> {
+            rejecting.addFirst(8);
+        });
+        assertEquals(2, rejecting.droppedCount());
+        assertEquals(6, rejecting.pollLast());
+        assertTrue(rejecting.offerFirst(8));
+        assertEquals("8 ==> 4 ==> 3 ==> 5 ==> 7 ==> 1", rejecting.toString());
+    }
+
+    @Test
+    void testOfferLast_fullBlockingDeque_waitsForRemoval() throws InterruptedException {
+        BoundedRingDeque<Integer> blocking = new BoundedRingDeque<Integer>(2, BoundedRingDeque.OverflowPolicy.BLOCK);
+        blocking.addLast(1);
+        blocking.addLast(2);
+        Thread producer = new Thread(() -> blocking.addLast(3));
+        producer.start();
+        while (producer.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        assertEquals(2, blocking.size());
+        assertEquals(1, blocking.takeFirst());
+        producer.join();
+        assertEquals("2 ==> 3", blocking.toString());
+        assertEquals(0, blocking.droppedCount());
+    }
+
+    @Test
+    void testSnapshot_wrappedWindow_copiesElementsInOrder() {
+        for (int i = 10; i < 14; i++) {
+            overwriting.offerLast(i);
+        }
+        assertArrayEquals(new Integer[] {1, 6, 10, 11, 12, 13}, overwriting.snapshot(new Integer[0]));
+        Integer[] larger = new Integer[8];
+        assertSame(larger, overwriting.snapshot(larger));
+        assertNull(larger[6]);
+        Iterator<Integer> descending = overwriting.descendingIterator();
+        assertEquals(13, descending.next());
+        descending.remove();
+        assertEquals(12, overwriting.peekLast());
+    }
+
+    @Test
+    void testOfferLast_fullOverwritingDeque_allocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Integer[] values = new Integer[1024];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i + 1000;
+        }
+        for (int i = 0; i < 100000; i++) {
+            overwriting.offerLast(values[i & 1023]);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100000; i++) {
+            overwriting.offerLast(values[i & 1023]);
+            overwriting.pollFirst();
+            overwriting.offerLast(values[i & 1023]);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testRemoveFirst_emptyDeque_throwsNoSuchElementException() {
+        BoundedRingDeque<Integer> empty = new BoundedRingDeque<Integer>(3);
+        assertNull(empty.peekFirst());
+        assertThrows(NoSuchElementException.class , () -> {
+            empty.removeFirst();
+        });
+    }
+}
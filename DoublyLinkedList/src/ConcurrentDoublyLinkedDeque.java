@@ -0,0 +1,813 @@
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+
+
+// Thread safe, lock free counterpart of DoublyLinkedList's Deque side.
+//
+// Nodes are linked with compare-and-set on their prev/next fields. A node
+// whose item is null has been removed logically and is unlinked lazily by
+// whichever thread passes it next. Instead of the single nil sentinel the
+// first node is the one whose prev is null and the last is the one whose
+// next is null; head and tail are only hints that may lag a few nodes
+// behind. A removed node that has been cut out points at itself, or at
+// one of the two terminator nodes when it was cut from an end, so threads
+// still holding it can tell they have to restart. This is the linking
+// protocol of java.util.concurrent.ConcurrentLinkedDeque.
+//
+// Iterators are weakly consistent: they never throw
+// ConcurrentModificationException and see every element that was present
+// for their whole lifetime. size() walks the deque and is only a snapshot.
+// Null elements are not permitted.
+
+public class ConcurrentDoublyLinkedDeque<T>
+        extends AbstractCollection<T>
+        implements Deque<T>, Serializable {
+
+    // Nodes may lag this many hops behind head or tail before being fixed
+    private static final int HOPS = 2;
+
+    private static final class Node<T> {
+        volatile Node<T> previous;
+        volatile T data;
+        volatile Node<T> next;
+    }
+
+    private static final Node<Object> PREV_TERMINATOR;
+    private static final Node<Object> NEXT_TERMINATOR;
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle PREVIOUS;
+    private static final VarHandle NEXT;
+    private static final VarHandle DATA;
+
+    static {
+        PREV_TERMINATOR = new Node<Object>();
+        PREV_TERMINATOR.next = PREV_TERMINATOR;
+        NEXT_TERMINATOR = new Node<Object>();
+        NEXT_TERMINATOR.previous = NEXT_TERMINATOR;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(ConcurrentDoublyLinkedDeque.class, "head", Node.class);
+            TAIL = lookup.findVarHandle(ConcurrentDoublyLinkedDeque.class, "tail", Node.class);
+            PREVIOUS = lookup.findVarHandle(Node.class, "previous", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+            DATA = lookup.findVarHandle(Node.class, "data", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private transient volatile Node<T> head;
+    private transient volatile Node<T> tail;
+
+    // Constructors
+    public ConcurrentDoublyLinkedDeque() {
+        head = tail = new Node<T>();
+    }
+
+    public ConcurrentDoublyLinkedDeque(Collection<? extends T> collection) {
+        this();
+        addAll(collection);
+    }
+
+    // Collection Interface Override Requirements
+
+    @Override
+    public boolean add(T value) {
+        return offerLast(value);
+    }
+
+    @Override
+    public void clear() {
+        while (pollFirst() != null) {
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o != null) {
+            for (Node<T> node = first(); node != null; node = successor(node)) {
+                T data = node.data;
+                if (data != null && o.equals(data)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peekFirst() == null;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new AscendingIterator();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    @Override
+    public int size() {
+        restart:
+        for (;;) {
+            int count = 0;
+            for (Node<T> node = first(); node != null;) {
+                if (node.data != null && ++count == Integer.MAX_VALUE) {
+                    return count;
+                }
+                if (node == (node = node.next)) {
+                    continue restart;
+                }
+            }
+            return count;
+        }
+    }
+
+    // Deque Interface Method Requirements
+
+    @Override
+    public void addFirst(T value) {
+        linkFirst(value);
+    }
+
+    @Override
+    public void addLast(T value) {
+        linkLast(value);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new DescendingIterator();
+    }
+
+    @Override
+    public T element() {
+        return getFirst();
+    }
+
+    @Override
+    public T getFirst() {
+        T data = peekFirst();
+        if (data == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return data;
+    }
+
+    @Override
+    public T getLast() {
+        T data = peekLast();
+        if (data == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return data;
+    }
+
+    @Override
+    public boolean offer(T value) {
+        return offerLast(value);
+    }
+
+    @Override
+    public boolean offerFirst(T value) {
+        linkFirst(value);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(T value) {
+        linkLast(value);
+        return true;
+    }
+
+    @Override
+    public T peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public T peekFirst() {
+        restart:
+        for (;;) {
+            T data;
+            Node<T> first = first();
+            Node<T> node = first;
+            while ((data = node.data) == null) {
+                if (node == (node = node.next)) {
+                    continue restart;
+                }
+                if (node == null) {
+                    break;
+                }
+            }
+            // The node we started from must still be first
+            if (first.previous != null) {
+                continue restart;
+            }
+            return data;
+        }
+    }
+
+    @Override
+    public T peekLast() {
+        restart:
+        for (;;) {
+            T data;
+            Node<T> last = last();
+            Node<T> node = last;
+            while ((data = node.data) == null) {
+                if (node == (node = node.previous)) {
+                    continue restart;
+                }
+                if (node == null) {
+                    break;
+                }
+            }
+            if (last.next != null) {
+                continue restart;
+            }
+            return data;
+        }
+    }
+
+    @Override
+    public T poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public T pollFirst() {
+        restart:
+        for (;;) {
+            for (Node<T> first = first(), node = first;;) {
+                T data = node.data;
+                if (data != null) {
+                    if (first.previous != null) {
+                        continue restart;
+                    }
+                    if (DATA.compareAndSet(node, data, null)) {
+                        unlink(node);
+                        return data;
+                    }
+                }
+                if (node == (node = node.next)) {
+                    continue restart;
+                }
+                if (node == null) {
+                    if (first.previous != null) {
+                        continue restart;
+                    }
+                    return null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public T pollLast() {
+        restart:
+        for (;;) {
+            for (Node<T> last = last(), node = last;;) {
+                T data = node.data;
+                if (data != null) {
+                    if (last.next != null) {
+                        continue restart;
+                    }
+                    if (DATA.compareAndSet(node, data, null)) {
+                        unlink(node);
+                        return data;
+                    }
+                }
+                if (node == (node = node.previous)) {
+                    continue restart;
+                }
+                if (node == null) {
+                    if (last.next != null) {
+                        continue restart;
+                    }
+                    return null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public T pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public void push(T value) {
+        addFirst(value);
+    }
+
+    @Override
+    public T remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public T removeFirst() {
+        T data = pollFirst();
+        if (data == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return data;
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        if (o != null) {
+            for (Node<T> node = first(); node != null; node = successor(node)) {
+                T data = node.data;
+                if (data != null && o.equals(data) && DATA.compareAndSet(node, data, null)) {
+                    unlink(node);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public T removeLast() {
+        T data = pollLast();
+        if (data == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return data;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        if (o != null) {
+            for (Node<T> node = last(); node != null; node = predecessor(node)) {
+                T data = node.data;
+                if (data != null && o.equals(data) && DATA.compareAndSet(node, data, null)) {
+                    unlink(node);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Extra Override Methods
+
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        for (T data : this) {
+            if (output.length() > 0) {
+                output.append(" ==> ");
+            }
+            output.append(data);
+        }
+        return output.toString();
+    }
+
+
+    // Helper Methods
+
+    private Node<T> newNode(T value) {
+        if (value == null) {
+            throw new NullPointerException("Null elements are not permitted");
+        }
+        Node<T> node = new Node<T>();
+        DATA.set(node, value);
+        return node;
+    }
+
+    private void linkFirst(T value) {
+        Node<T> newNode = newNode(value);
+        restartFromHead:
+        for (;;) {
+            for (Node<T> h = head, node = h, q;;) {
+                if ((q = node.previous) != null && (q = (node = q).previous) != null) {
+                    // Check for head updates every other hop
+                    node = (h != (h = head)) ? h : q;
+                } else if (node.next == node) {
+                    continue restartFromHead;
+                } else {
+                    // node is the first node
+                    NEXT.set(newNode, node);
+                    if (PREVIOUS.compareAndSet(node, null, newNode)) {
+                        if (node != h) {
+                            HEAD.weakCompareAndSet(this, h, newNode);
+                        }
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private void linkLast(T value) {
+        Node<T> newNode = newNode(value);
+        restartFromTail:
+        for (;;) {
+            for (Node<T> t = tail, node = t, q;;) {
+                if ((q = node.next) != null && (q = (node = q).next) != null) {
+                    // Check for tail updates every other hop
+                    node = (t != (t = tail)) ? t : q;
+                } else if (node.previous == node) {
+                    continue restartFromTail;
+                } else {
+                    // node is the last node
+                    PREVIOUS.set(newNode, node);
+                    if (NEXT.compareAndSet(node, null, newNode)) {
+                        if (node != t) {
+                            TAIL.weakCompareAndSet(this, t, newNode);
+                        }
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    // Unlinks a node whose data has already been cleared
+    private void unlink(Node<T> x) {
+        Node<T> previous = x.previous;
+        Node<T> next = x.next;
+        if (previous == null) {
+            unlinkFirst(x, next);
+        } else if (next == null) {
+            unlinkLast(x, previous);
+        } else {
+            Node<T> activePredecessor;
+            Node<T> activeSuccessor;
+            boolean isFirst;
+            boolean isLast;
+            int hops = 1;
+
+            for (Node<T> node = previous; ; ++hops) {
+                if (node.data != null) {
+                    activePredecessor = node;
+                    isFirst = false;
+                    break;
+                }
+                Node<T> q = node.previous;
+                if (q == null) {
+                    if (node.next == node) {
+                        return;
+                    }
+                    activePredecessor = node;
+                    isFirst = true;
+                    break;
+                } else if (node == q) {
+                    return;
+                } else {
+                    node = q;
+                }
+            }
+
+            for (Node<T> node = next; ; ++hops) {
+                if (node.data != null) {
+                    activeSuccessor = node;
+                    isLast = false;
+                    break;
+                }
+                Node<T> q = node.next;
+                if (q == null) {
+                    if (node.previous == node) {
+                        return;
+                    }
+                    activeSuccessor = node;
+                    isLast = true;
+                    break;
+                } else if (node == q) {
+                    return;
+                } else {
+                    node = q;
+                }
+            }
+
+            // Leave short runs of removed nodes next to an end for later
+            if (hops < HOPS && (isFirst | isLast)) {
+                return;
+            }
+
+            skipDeletedSuccessors(activePredecessor);
+            skipDeletedPredecessors(activeSuccessor);
+
+            if ((isFirst | isLast)
+                    && activePredecessor.next == activeSuccessor
+                    && activeSuccessor.previous == activePredecessor
+                    && (isFirst ? activePredecessor.previous == null : activePredecessor.data != null)
+                    && (isLast ? activeSuccessor.next == null : activeSuccessor.data != null)) {
+                // Make sure x is no longer reachable from the hints
+                updateHead();
+                updateTail();
+                PREVIOUS.setRelease(x, isFirst ? prevTerminator() : x);
+                NEXT.setRelease(x, isLast ? nextTerminator() : x);
+            }
+        }
+    }
+
+    private void unlinkFirst(Node<T> first, Node<T> next) {
+        for (Node<T> o = null, node = next, q;;) {
+            if (node.data != null || (q = node.next) == null) {
+                if (o != null && node.previous != node && NEXT.compareAndSet(first, next, node)) {
+                    skipDeletedPredecessors(node);
+                    if (first.previous == null
+                            && (node.next == null || node.data != null)
+                            && node.previous == first) {
+                        updateHead();
+                        updateTail();
+                        NEXT.setRelease(o, o);
+                        PREVIOUS.setRelease(o, prevTerminator());
+                    }
+                }
+                return;
+            } else if (node == q) {
+                return;
+            } else {
+                o = node;
+                node = q;
+            }
+        }
+    }
+
+    private void unlinkLast(Node<T> last, Node<T> previous) {
+        for (Node<T> o = null, node = previous, q;;) {
+            if (node.data != null || (q = node.previous) == null) {
+                if (o != null && node.next != node && PREVIOUS.compareAndSet(last, previous, node)) {
+                    skipDeletedSuccessors(node);
+                    if (last.next == null
+                            && (node.previous == null || node.data != null)
+                            && node.next == last) {
+                        updateHead();
+                        updateTail();
+                        PREVIOUS.setRelease(o, o);
+                        NEXT.setRelease(o, nextTerminator());
+                    }
+                }
+                return;
+            } else if (node == q) {
+                return;
+            } else {
+                o = node;
+                node = q;
+            }
+        }
+    }
+
+    // Moves head forward until it points at a live node or the first node
+    private void updateHead() {
+        Node<T> h;
+        Node<T> node;
+        Node<T> q;
+        restartFromHead:
+        while ((h = head).data == null && (node = h.previous) != null) {
+            for (;;) {
+                if ((q = node.previous) == null || (q = (node = q).previous) == null) {
+                    // node may be PREV_TERMINATOR, in which case the CAS fails
+                    if (HEAD.compareAndSet(this, h, node)) {
+                        return;
+                    }
+                    continue restartFromHead;
+                } else if (h != head) {
+                    continue restartFromHead;
+                } else {
+                    node = q;
+                }
+            }
+        }
+    }
+
+    private void updateTail() {
+        Node<T> t;
+        Node<T> node;
+        Node<T> q;
+        restartFromTail:
+        while ((t = tail).data == null && (node = t.next) != null) {
+            for (;;) {
+                if ((q = node.next) == null || (q = (node = q).next) == null) {
+                    if (TAIL.compareAndSet(this, t, node)) {
+                        return;
+                    }
+                    continue restartFromTail;
+                } else if (t != tail) {
+                    continue restartFromTail;
+                } else {
+                    node = q;
+                }
+            }
+        }
+    }
+
+    private void skipDeletedPredecessors(Node<T> x) {
+        whileActive:
+        do {
+            Node<T> previous = x.previous;
+            Node<T> node = previous;
+            for (;;) {
+                if (node.data != null) {
+                    break;
+                }
+                Node<T> q = node.previous;
+                if (q == null) {
+                    if (node.next == node) {
+                        continue whileActive;
+                    }
+                    break;
+                } else if (node == q) {
+                    continue whileActive;
+                } else {
+                    node = q;
+                }
+            }
+            if (previous == node || PREVIOUS.compareAndSet(x, previous, node)) {
+                return;
+            }
+        } while (x.data != null || x.next == null);
+    }
+
+    private void skipDeletedSuccessors(Node<T> x) {
+        whileActive:
+        do {
+            Node<T> next = x.next;
+            Node<T> node = next;
+            for (;;) {
+                if (node.data != null) {
+                    break;
+                }
+                Node<T> q = node.next;
+                if (q == null) {
+                    if (node.previous == node) {
+                        continue whileActive;
+                    }
+                    break;
+                } else if (node == q) {
+                    continue whileActive;
+                } else {
+                    node = q;
+                }
+            }
+            if (next == node || NEXT.compareAndSet(x, next, node)) {
+                return;
+            }
+        } while (x.data != null || x.previous == null);
+    }
+
+    // Next node after node, restarting from the front if node was cut out
+    private Node<T> successor(Node<T> node) {
+        if (node == (node = node.next)) {
+            node = first();
+        }
+        return node;
+    }
+
+    private Node<T> predecessor(Node<T> node) {
+        if (node == (node = node.previous)) {
+            node = last();
+        }
+        return node;
+    }
+
+    // Returns the first node, which may hold no data when the deque is empty
+    private Node<T> first() {
+        restartFromHead:
+        for (;;) {
+            for (Node<T> h = head, node = h, q;;) {
+                if ((q = node.previous) != null && (q = (node = q).previous) != null) {
+                    node = (h != (h = head)) ? h : q;
+                } else if (node == h || HEAD.compareAndSet(this, h, node)) {
+                    return node;
+                } else {
+                    continue restartFromHead;
+                }
+            }
+        }
+    }
+
+    private Node<T> last() {
+        restartFromTail:
+        for (;;) {
+            for (Node<T> t = tail, node = t, q;;) {
+                if ((q = node.next) != null && (q = (node = q).next) != null) {
+                    node = (t != (t = tail)) ? t : q;
+                } else if (node == t || TAIL.compareAndSet(this, t, node)) {
+                    return node;
+                } else {
+                    continue restartFromTail;
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<T> prevTerminator() {
+        return (Node<T>) PREV_TERMINATOR;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<T> nextTerminator() {
+        return (Node<T>) NEXT_TERMINATOR;
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+        out.defaultWriteObject();
+        for (Node<T> node = first(); node != null; node = successor(node)) {
+            T data = node.data;
+            if (data != null) {
+                out.writeObject(data);
+            }
+        }
+        out.writeObject(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        head = tail = new Node<T>();
+        Object data;
+        while ((data = in.readObject()) != null) {
+            linkLast((T) data);
+        }
+    }
+
+    private abstract class WeakIterator implements Iterator<T> {
+        private Node<T> nextNode;
+        private T nextData;
+        private Node<T> lastReturned;
+
+        abstract Node<T> startNode();
+        abstract Node<T> nextNode(Node<T> node);
+
+        WeakIterator() {
+            advance();
+        }
+
+        // Moves to the next node that still holds data
+        private void advance() {
+            lastReturned = nextNode;
+            Node<T> node = nextNode == null ? startNode() : nextNode(nextNode);
+            for (;; node = nextNode(node)) {
+                if (node == null) {
+                    nextNode = null;
+                    nextData = null;
+                    return;
+                }
+                T data = node.data;
+                if (data != null) {
+                    nextNode = node;
+                    nextData = data;
+                    return;
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return nextData != null;
+        }
+
+        public T next() {
+            T data = nextData;
+            if (data == null) {
+                throw new NoSuchElementException("No next element exists.");
+            }
+            advance();
+            return data;
+        }
+
+        public void remove() {
+            Node<T> node = lastReturned;
+            if (node == null) {
+                throw new IllegalStateException("No element to remove");
+            }
+            node.data = null;
+            unlink(node);
+            lastReturned = null;
+        }
+    }
+
+    private final class AscendingIterator extends WeakIterator {
+        Node<T> startNode() {
+            return first();
+        }
+
+        Node<T> nextNode(Node<T> node) {
+            return successor(node);
+        }
+    }
+
+    private final class DescendingIterator extends WeakIterator {
+        Node<T> startNode() {
+            return last();
+        }
+
+        Node<T> nextNode(Node<T> node) {
+            return predecessor(node);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentDoublyLinkedDequeTest {
+
+    private ConcurrentDoublyLinkedDeque<Integer> emptyDeque;
+    private ConcurrentDoublyLinkedDeque<Integer> multipleElementDeque;
+
+    @BeforeEach
+    public void setUp()
+    {
+        // []
+        emptyDeque = new ConcurrentDoublyLinkedDeque<Integer>();
+        assertEquals( "", emptyDeque.toString() );
+
+        // [4 3 5 7 1 6]
+        multipleElementDeque = new ConcurrentDoublyLinkedDeque<Integer>();
+        multipleElementDeque.offerFirst(6);
+        multipleElementDeque.offerFirst(1);
+        multipleElementDeque.offerFirst(7);
+        multipleElementDeque.offerFirst(5);
+        multipleElementDeque.offerFirst(3);
+        multipleElementDeque.offerFirst(4);
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementDeque.toString() );
+    }
+
+    @Test
+    void testPollAndPeek_bothEnds_returnElementsInOrder() {
+        assertEquals(4, multipleElementDeque.peekFirst());
+        assertEquals(6, multipleElementDeque.peekLast());
+        assertEquals(4, multipleElementDeque.pollFirst());
+        assertEquals(6, multipleElementDeque.pollLast());
+        assertEquals(4, multipleElementDeque.size());
+        assertEquals("3 ==> 5 ==> 7 ==> 1", multipleElementDeque.toString());
+    }
+
+    @Test
+    void testEmptyDeque_pollingAndGetting_returnsNullOrThrows() {
+        assertNull(emptyDeque.pollFirst());
+        assertNull(emptyDeque.peekLast());
+        assertTrue(emptyDeque.isEmpty());
+        assertThrows(NoSuchElementException.class , () -> {
+            emptyDeque.removeFirst();
+        });
+        assertThrows(NoSuchElementException.class , () -> {
+            emptyDeque.getLast();
+        });
+    }
+
+    @Test
+    void testOffer_offeringNull_throwsNullPointerException() {
+        assertThrows(NullPointerException.class , () -> {
+            emptyDeque.offerLast(null);
+        });
+    }
+
+    @Test
+    void testRemoveOccurrence_removingInteriorElements_unlinksThem() {
+        multipleElementDeque.addLast(5);
+        assertTrue(multipleElementDeque.removeFirstOccurrence(5));
+        assertTrue(multipleElementDeque.removeLastOccurrence(5));
+        assertFalse(multipleElementDeque.removeLastOccurrence(5));
+        assertEquals("4 ==> 3 ==> 7 ==> 1 ==> 6", multipleElementDeque.toString());
+        assertTrue(multipleElementDeque.contains(7));
+        assertFalse(multipleElementDeque.contains(5));
+    }
+
+    @Test
+    void testIterators_modifyingDuringIteration_doesNotThrow() {
+        Iterator<Integer> iterator = multipleElementDeque.iterator();
+        assertEquals(4, iterator.next());
+        multipleElementDeque.pollFirst();
+        multipleElementDeque.addLast(9);
+        iterator.remove();
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(6, count);
+        Iterator<Integer> descending = multipleElementDeque.descendingIterator();
+        assertEquals(9, descending.next());
+        assertEquals(6, descending.next());
+    }
+
+    @Test
+    void testConcurrentProducersAndConsumers_everyElementIsTakenExactlyOnce() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20000;
+        AtomicIntegerArray taken = new AtomicIntegerArray(producers * perProducer);
+        Thread[] threads = new Thread[producers * 2];
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (i % 2 == 0) {
+                        emptyDeque.offerLast(base + i);
+                    } else {
+                        emptyDeque.offerFirst(base + i);
+                    }
+                }
+            });
+            boolean fromFront = p % 2 == 0;
+            threads[producers + p] = new Thread(() -> {
+                int count = 0;
+                while (count < perProducer) {
+                    Integer value = fromFront ? emptyDeque.pollFirst() : emptyDeque.pollLast();
+                    if (value != null) {
+                        taken.incrementAndGet(value);
+                        count++;
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < taken.length(); i++) {
+            assertEquals(1, taken.get(i));
+        }
+        assertTrue(emptyDeque.isEmpty());
+    }
+}
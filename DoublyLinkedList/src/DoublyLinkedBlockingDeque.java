@@ -0,0 +1,813 @@
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+// Blocking deque on the same nil sentinel chain as DoublyLinkedList, with
+// one lock per end so producers at the tail do not contend with consumers
+// at the head.
+//
+// Operations at opposite ends only touch different fields while the deque
+// holds at least three elements, so in that state each end works under its
+// own lock. Removals reserve their element by decrementing count before
+// unlinking and inserts publish theirs by incrementing it afterwards, which
+// keeps the count that the other end reads on the safe side. Below three
+// elements, or close to the capacity bound, an operation takes both locks,
+// always head first.
+//
+// Blocked callers wait on a separate lock, so a waiting consumer never
+// holds up producers at the other end. size() is exact only when no
+// operation is in flight. Iterators work on a snapshot. Null elements are
+// not permitted.
+
+public class DoublyLinkedBlockingDeque<T>
+        extends AbstractQueue<T>
+        implements BlockingDeque<T>, Serializable {
+
+    private static final int FAST_PATH_MINIMUM = 3;
+
+    private static class Node<T> {
+        public T data;
+        public Node<T> next;
+        public Node<T> previous;
+
+        public Node (T data) {
+            this.data = data;
+        }
+    }
+
+    private transient Node<T> nil;
+    private final int capacity;
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final ReentrantLock headLock = new ReentrantLock();
+    private final ReentrantLock tailLock = new ReentrantLock();
+
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition notEmpty = waitLock.newCondition();
+    private final Condition notFull = waitLock.newCondition();
+    private volatile int waitingTakers;
+    private volatile int waitingPutters;
+
+    // Constructors
+    public DoublyLinkedBlockingDeque() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public DoublyLinkedBlockingDeque(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        nil = new Node<T>(null);
+        nil.previous = nil;
+        nil.next = nil;
+    }
+
+    public DoublyLinkedBlockingDeque(Collection<? extends T> collection) {
+        this();
+        for (T value : collection) {
+            addLast(value);
+        }
+    }
+
+    // Collection Interface Override Requirements
+
+    @Override
+    public boolean add(T value) {
+        addLast(value);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        fullyLock();
+        try {
+            // Null every link, as drainTo does, so a snapshot iterator
+            // holding a cleared node sees it is no longer in the deque
+            Node<T> node = nil.next;
+            while (node != nil) {
+                Node<T> next = node.next;
+                node.next = null;
+                node.previous = null;
+                node = next;
+            }
+            nil.next = nil;
+            nil.previous = nil;
+            count.set(0);
+        } finally {
+            fullyUnlock();
+        }
+        signalNotFull();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        fullyLock();
+        try {
+            for (Node<T> node = nil.next; node != nil; node = node.next) {
+                if (o.equals(node.data)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new SnapshotIterator(false);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public Object[] toArray() {
+        fullyLock();
+        try {
+            Object[] array = new Object[count.get()];
+            int arrayIndex = 0;
+            for (Node<T> node = nil.next; node != nil; node = node.next) {
+                array[arrayIndex++] = node.data;
+            }
+            return array;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    // Deque Interface Method Requirements
+
+    @Override
+    public void addFirst(T value) {
+        if (!offerFirst(value)) {
+            throw new IllegalStateException("Deque full");
+        }
+    }
+
+    @Override
+    public void addLast(T value) {
+        if (!offerLast(value)) {
+            throw new IllegalStateException("Deque full");
+        }
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new SnapshotIterator(true);
+    }
+
+    @Override
+    public T element() {
+        return getFirst();
+    }
+
+    @Override
+    public T getFirst() {
+        T data = peekFirst();
+        if (data == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return data;
+    }
+
+    @Override
+    public T getLast() {
+        T data = peekLast();
+        if (data == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return data;
+    }
+
+    @Override
+    public boolean offer(T value) {
+        return offerLast(value);
+    }
+
+    @Override
+    public boolean offerFirst(T value) {
+        Node<T> node = newNode(value);
+        headLock.lock();
+        try {
+            int c = count.get();
+            if (c >= FAST_PATH_MINIMUM && c < capacity - 1) {
+                linkFirst(node);
+                count.getAndIncrement();
+            } else {
+                tailLock.lock();
+                try {
+                    if (count.get() >= capacity) {
+                        return false;
+                    }
+                    linkFirst(node);
+                    count.getAndIncrement();
+                } finally {
+                    tailLock.unlock();
+                }
+            }
+        } finally {
+            headLock.unlock();
+        }
+        signalNotEmpty();
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(T value) {
+        Node<T> node = newNode(value);
+        tailLock.lock();
+        int c = count.get();
+        if (c >= FAST_PATH_MINIMUM && c < capacity - 1) {
+            try {
+                linkLast(node);
+                count.getAndIncrement();
+            } finally {
+                tailLock.unlock();
+            }
+        } else {
+            tailLock.unlock();
+            fullyLock();
+            try {
+                if (count.get() >= capacity) {
+                    return false;
+                }
+                linkLast(node);
+                count.getAndIncrement();
+            } finally {
+                fullyUnlock();
+            }
+        }
+        signalNotEmpty();
+        return true;
+    }
+
+    @Override
+    public T peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public T peekFirst() {
+        fullyLock();
+        try {
+            return nil.next.data;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public T peekLast() {
+        fullyLock();
+        try {
+            return nil.previous.data;
+        } finally {
+            fullyUnlock();
+        }
+    }
+
+    @Override
+    public T poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public T pollFirst() {
+        T data;
+        headLock.lock();
+        try {
+            int c = count.get();
+            if (c >= FAST_PATH_MINIMUM && count.compareAndSet(c, c - 1)) {
+                data = unlinkFirst();
+            } else {
+                tailLock.lock();
+                try {
+                    if (count.get() == 0) {
+                        return null;
+                    }
+                    count.getAndDecrement();
+                    data = unlinkFirst();
+                } finally {
+                    tailLock.unlock();
+                }
+            }
+        } finally {
+            headLock.unlock();
+        }
+        signalNotFull();
+        return data;
+    }
+
+    @Override
+    public T pollLast() {
+        T data;
+        tailLock.lock();
+        int c = count.get();
+        if (c >= FAST_PATH_MINIMUM && count.compareAndSet(c, c - 1)) {
+            try {
+                data = unlinkLast();
+            } finally {
+                tailLock.unlock();
+            }
+        } else {
+            tailLock.unlock();
+            fullyLock();
+            try {
+                if (count.get() == 0) {
+                    return null;
+                }
+                count.getAndDecrement();
+                data = unlinkLast();
+            } finally {
+                fullyUnlock();
+            }
+        }
+        signalNotFull();
+        return data;
+    }
+
+    @Override
+    public T pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public void push(T value) {
+        addFirst(value);
+    }
+
+    @Override
+    public T remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public T removeFirst() {
+        T data = pollFirst();
+        if (data == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return data;
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        if (o == null) {
+            return false;
+        }
+        boolean removed = false;
+        fullyLock();
+        try {
+            for (Node<T> node = nil.next; node != nil; node = node.next) {
+                if (o.equals(node.data)) {
+                    unlink(node);
+                    removed = true;
+                    break;
+                }
+            }
+        } finally {
+            fullyUnlock();
+        }
+        if (removed) {
+            signalNotFull();
+        }
+        return removed;
+    }
+
+    @Override
+    public T removeLast() {
+        T data = pollLast();
+        if (data == null) {
+            throw new NoSuchElementException("The deque is empty");
+        }
+        return data;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        if (o == null) {
+            return false;
+        }
+        boolean removed = false;
+        fullyLock();
+        try {
+            for (Node<T> node = nil.previous; node != nil; node = node.previous) {
+                if (o.equals(node.data)) {
+                    unlink(node);
+                    removed = true;
+                    break;
+                }
+            }
+        } finally {
+            fullyUnlock();
+        }
+        if (removed) {
+            signalNotFull();
+        }
+        return removed;
+    }
+
+    // BlockingDeque Interface Method Requirements
+
+    @Override
+    public void put(T value) throws InterruptedException {
+        putLast(value);
+    }
+
+    @Override
+    public void putFirst(T value) throws InterruptedException {
+        while (!offerFirst(value)) {
+            awaitNotFull(false, 0L);
+        }
+    }
+
+    @Override
+    public void putLast(T value) throws InterruptedException {
+        while (!offerLast(value)) {
+            awaitNotFull(false, 0L);
+        }
+    }
+
+    @Override
+    public boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        return offerLast(value, timeout, unit);
+    }
+
+    @Override
+    public boolean offerFirst(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!offerFirst(value)) {
+            if (!awaitNotFull(true, deadline)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!offerLast(value)) {
+            if (!awaitNotFull(true, deadline)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        return takeFirst();
+    }
+
+    @Override
+    public T takeFirst() throws InterruptedException {
+        T data;
+        while ((data = pollFirst()) == null) {
+            awaitNotEmpty(false, 0L);
+        }
+        return data;
+    }
+
+    @Override
+    public T takeLast() throws InterruptedException {
+        T data;
+        while ((data = pollLast()) == null) {
+            awaitNotEmpty(false, 0L);
+        }
+        return data;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return pollFirst(timeout, unit);
+    }
+
+    @Override
+    public T pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        T data;
+        while ((data = pollFirst()) == null) {
+            if (!awaitNotEmpty(true, deadline)) {
+                return null;
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public T pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        T data;
+        while ((data = pollLast()) == null) {
+            if (!awaitNotEmpty(true, deadline)) {
+                return null;
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - count.get();
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    // Detaches up to maxElements from the head in one relink under both
+    // locks. If collection throws, the elements it already accepted are
+    // still removed from this deque.
+    @Override
+    public int drainTo(Collection<? super T> collection, int maxElements) {
+        if (collection == this) {
+            throw new IllegalArgumentException("Cannot drain a deque into itself");
+        }
+        if (maxElements <= 0) {
+            return 0;
+        }
+        int drained = 0;
+        fullyLock();
+        try {
+            Node<T> first = nil.next;
+            Node<T> node = first;
+            try {
+                while (node != nil && drained < maxElements) {
+                    collection.add(node.data);
+                    node = node.next;
+                    drained++;
+                }
+            } finally {
+                if (drained > 0) {
+                    nil.next = node;
+                    node.previous = nil;
+                    count.addAndGet(-drained);
+                    while (first != node) {
+                        Node<T> next = first.next;
+                        first.next = null;
+                        first.previous = null;
+                        first = next;
+                    }
+                }
+            }
+        } finally {
+            fullyUnlock();
+            if (drained > 0) {
+                signalNotFull();
+            }
+        }
+        return drained;
+    }
+
+    // Extra Override Methods
+
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        for (Object data : toArray()) {
+            if (output.length() > 0) {
+                output.append(" ==> ");
+            }
+            output.append(data);
+        }
+        return output.toString();
+    }
+
+
+    // Helper Methods
+
+    private Node<T> newNode(T value) {
+        if (value == null) {
+            throw new NullPointerException("Null elements are not permitted");
+        }
+        return new Node<T>(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newNodes(int length) {
+        return (Node<T>[]) new Node<?>[length];
+    }
+
+    private void fullyLock() {
+        headLock.lock();
+        tailLock.lock();
+    }
+
+    private void fullyUnlock() {
+        tailLock.unlock();
+        headLock.unlock();
+    }
+
+    private void linkFirst(Node<T> newNode) {
+        Node<T> first = nil.next;
+        newNode.next = first;
+        newNode.previous = nil;
+        first.previous = newNode;
+        nil.next = newNode;
+    }
+
+    private void linkLast(Node<T> newNode) {
+        Node<T> last = nil.previous;
+        newNode.next = nil;
+        newNode.previous = last;
+        last.next = newNode;
+        nil.previous = newNode;
+    }
+
+    private T unlinkFirst() {
+        Node<T> first = nil.next;
+        Node<T> next = first.next;
+        nil.next = next;
+        next.previous = nil;
+        first.next = null;
+        first.previous = null;
+        return first.data;
+    }
+
+    private T unlinkLast() {
+        Node<T> last = nil.previous;
+        Node<T> previous = last.previous;
+        nil.previous = previous;
+        previous.next = nil;
+        last.next = null;
+        last.previous = null;
+        return last.data;
+    }
+
+    // Requires both locks
+    private void unlink(Node<T> node) {
+        node.next.previous = node.previous;
+        node.previous.next = node.next;
+        node.next = null;
+        node.previous = null;
+        count.getAndDecrement();
+    }
+
+    // Waits until the deque may have room, forever unless timed. Returns
+    // false once the deadline of a timed wait has passed. Any nanoTime
+    // value is a valid deadline, so there is no sentinel for "untimed".
+    private boolean awaitNotFull(boolean timed, long deadline) throws InterruptedException {
+        waitLock.lockInterruptibly();
+        try {
+            waitingPutters++;
+            while (count.get() >= capacity) {
+                if (!timed) {
+                    notFull.await();
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    notFull.awaitNanos(remaining);
+                }
+            }
+            return true;
+        } finally {
+            waitingPutters--;
+            waitLock.unlock();
+        }
+    }
+
+    private boolean awaitNotEmpty(boolean timed, long deadline) throws InterruptedException {
+        waitLock.lockInterruptibly();
+        try {
+            waitingTakers++;
+            while (count.get() == 0) {
+                if (!timed) {
+                    notEmpty.await();
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    notEmpty.awaitNanos(remaining);
+                }
+            }
+            return true;
+        } finally {
+            waitingTakers--;
+            waitLock.unlock();
+        }
+    }
+
+    // Waiters register before re-checking count and signallers change count
+    // before checking for waiters, so a wakeup cannot fall between the two.
+    private void signalNotEmpty() {
+        if (waitingTakers > 0) {
+            waitLock.lock();
+            try {
+                notEmpty.signalAll();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+    }
+
+    private void signalNotFull() {
+        if (waitingPutters > 0) {
+            waitLock.lock();
+            try {
+                notFull.signalAll();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+        Object[] elements = toArray();
+        out.defaultWriteObject();
+        out.writeInt(elements.length);
+        for (Object element : elements) {
+            out.writeObject(element);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        nil = new Node<T>(null);
+        nil.previous = nil;
+        nil.next = nil;
+        int elements = in.readInt();
+        for (int i = 0; i < elements; i++) {
+            linkLast(new Node<T>((T) in.readObject()));
+        }
+        count.set(elements);
+    }
+
+    // Walks an array copied under both locks; remove() unlinks the exact
+    // node that was returned if it is still in the deque.
+    private final class SnapshotIterator implements Iterator<T> {
+        private final Node<T>[] nodes;
+        private int position;
+        private Node<T> lastReturned;
+
+        SnapshotIterator(boolean descending) {
+            fullyLock();
+            try {
+                nodes = newNodes(count.get());
+                int arrayIndex = 0;
+                Node<T> node = descending ? nil.previous : nil.next;
+                while (node != nil) {
+                    nodes[arrayIndex++] = node;
+                    node = descending ? node.previous : node.next;
+                }
+            } finally {
+                fullyUnlock();
+            }
+        }
+
+        public boolean hasNext() {
+            return position < nodes.length;
+        }
+
+        public T next() {
+            if (position >= nodes.length) {
+                throw new NoSuchElementException("No next element exists.");
+            }
+            lastReturned = nodes[position++];
+            return lastReturned.data;
+        }
+
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException("No element to remove");
+            }
+            boolean removed = false;
+            fullyLock();
+            try {
+                if (lastReturned.previous != null) {
+                    unlink(lastReturned);
+                    removed = true;
+                }
+            } finally {
+                fullyUnlock();
+            }
+            lastReturned = null;
+            if (removed) {
+                signalNotFull();
+            }
+        }
+    }
+}
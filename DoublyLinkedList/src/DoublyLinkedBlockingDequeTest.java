@@ -0,0 +1,212 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoublyLinkedBlockingDequeTest {
+
+    private DoublyLinkedBlockingDeque<Integer> emptyDeque;
+    private DoublyLinkedBlockingDeque<Integer> multipleElementDeque;
+
+    @BeforeEach
+    public void setUp()
+    {
+        // []
+        emptyDeque = new DoublyLinkedBlockingDeque<Integer>();
+        assertEquals( "", emptyDeque.toString() );
+
+        // [4 3 5 7 1 6]
+        multipleElementDeque = new DoublyLinkedBlockingDeque<Integer>();
+        multipleElementDeque.offerFirst(6);
+        multipleElementDeque.offerFirst(1);
+        multipleElementDeque.offerFirst(7);
+        multipleElementDeque.offerFirst(5);
+        multipleElementDeque.offerFirst(3);
+        multipleElementDeque.offerFirst(4);
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementDeque.toString() );
+    }
+
+    @Test
+    void testPollAndPeek_bothEnds_returnElementsInOrder() {
+        assertEquals(4, multipleElementDeque.peekFirst());
+        assertEquals(6, multipleElementDeque.peekLast());
+        assertEquals(4, multipleElementDeque.pollFirst());
+        assertEquals(6, multipleElementDeque.pollLast());
+        assertEquals(3, multipleElementDeque.pollFirst());
+        assertEquals(1, multipleElementDeque.pollLast());
+        assertEquals(2, multipleElementDeque.size());
+        assertEquals("5 ==> 7", multipleElementDeque.toString());
+        assertNull(emptyDeque.pollLast());
+        assertThrows(NoSuchElementException.class , () -> {
+            emptyDeque.removeFirst();
+        });
+    }
+
+    @Test
+    void testCapacity_offeringToFullDeque_rejectsOrTimesOut() throws InterruptedException {
+        DoublyLinkedBlockingDeque<Integer> bounded = new DoublyLinkedBlockingDeque<Integer>(5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bounded.offerLast(i));
+        }
+        assertFalse(bounded.offerFirst(5));
+        assertFalse(bounded.offerLast(5, 10, TimeUnit.MILLISECONDS));
+        assertEquals(0, bounded.remainingCapacity());
+        assertThrows(IllegalStateException.class , () -> {
+            bounded.addLast(5);
+        });
+        assertEquals("0 ==> 1 ==> 2 ==> 3 ==> 4", bounded.toString());
+    }
+
+    @Test
+    void testTakeFirst_waitingOnEmptyDeque_returnsElementOnceProduced() throws InterruptedException {
+        assertNull(emptyDeque.pollFirst(10, TimeUnit.MILLISECONDS));
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+                emptyDeque.putLast(8);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        assertEquals(8, emptyDeque.takeFirst());
+        producer.join();
+    }
+
+    @Test
+    void testPutLast_waitingOnFullDeque_insertsOnceSpaceIsFreed() throws InterruptedException {
+        DoublyLinkedBlockingDeque<Integer> bounded = new DoublyLinkedBlockingDeque<Integer>(1);
+        bounded.putLast(1);
+        Thread consumer = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+                bounded.takeFirst();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        bounded.putLast(2);
+        consumer.join();
+        assertEquals("2", bounded.toString());
+    }
+
+    @Test
+    void testDrainTo_limitedNumberOfElements_movesElementsFromHead() {
+        ArrayList<Integer> drained = new ArrayList<Integer>();
+        assertEquals(4, multipleElementDeque.drainTo(drained, 4));
+        assertEquals("[4, 3, 5, 7]", drained.toString());
+        assertEquals("1 ==> 6", multipleElementDeque.toString());
+        assertEquals(2, multipleElementDeque.drainTo(drained));
+        assertTrue(multipleElementDeque.isEmpty());
+        multipleElementDeque.addLast(9);
+        assertEquals(9, multipleElementDeque.peekFirst());
+    }
+
+    @Test
+    void testDrainTo_collectionRejectsElement_removesOnlyAcceptedElements() {
+        ArrayList<Integer> bounded = new ArrayList<Integer>() {
+            @Override
+            public boolean add(Integer value) {
+                if (size() == 3) {
+                    throw new IllegalStateException("Full");
+                }
+                return super.add(value);
+            }
+        };
+        assertThrows(IllegalStateException.class , () -> {
+            multipleElementDeque.drainTo(bounded, 10);
+        });
+        assertEquals("[4, 3, 5]", bounded.toString());
+        assertEquals(3, multipleElementDeque.size());
+        assertEquals("7 ==> 1 ==> 6", multipleElementDeque.toString());
+        assertEquals(7, multipleElementDeque.pollFirst());
+        multipleElementDeque.addFirst(9);
+        assertEquals(6, multipleElementDeque.pollLast());
+        assertEquals("9 ==> 1", multipleElementDeque.toString());
+    }
+
+    @Test
+    void testIteratorRemove_afterClear_leavesDequeEmpty() {
+        DoublyLinkedBlockingDeque<Integer> deque = new DoublyLinkedBlockingDeque<Integer>();
+        deque.add(1);
+        deque.add(2);
+        deque.add(3);
+        Iterator<Integer> iterator = deque.iterator();
+        assertEquals(1, iterator.next());
+        deque.clear();
+        iterator.remove();
+        assertEquals(0, deque.size());
+        assertEquals("", deque.toString());
+        assertNull(deque.peekFirst());
+        deque.add(4);
+        assertEquals("4", deque.toString());
+    }
+
+    @Test
+    void testIterators_removingDuringIteration_unlinksReturnedElement() {
+        Iterator<Integer> iterator = multipleElementDeque.iterator();
+        assertEquals(4, iterator.next());
+        assertEquals(3, iterator.next());
+        iterator.remove();
+        assertEquals("4 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementDeque.toString());
+        Iterator<Integer> descending = multipleElementDeque.descendingIterator();
+        assertEquals(6, descending.next());
+        assertEquals(1, descending.next());
+        assertTrue(multipleElementDeque.removeFirstOccurrence(1));
+        descending.remove();
+        assertEquals(4, multipleElementDeque.size());
+    }
+
+    @Test
+    void testConcurrentProducersAndConsumers_everyElementIsTakenExactlyOnce() throws InterruptedException {
+        DoublyLinkedBlockingDeque<Integer> bounded = new DoublyLinkedBlockingDeque<Integer>(16);
+        int producers = 4;
+        int perProducer = 20000;
+        AtomicIntegerArray taken = new AtomicIntegerArray(producers * perProducer);
+        Thread[] threads = new Thread[producers * 2];
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            boolean atFront = p % 2 == 0;
+            threads[p] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < perProducer; i++) {
+                        if (atFront) {
+                            bounded.putFirst(base + i);
+                        } else {
+                            bounded.putLast(base + i);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[producers + p] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < perProducer; i++) {
+                        Integer value = atFront ? bounded.takeLast() : bounded.takeFirst();
+                        taken.incrementAndGet(value);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < taken.length(); i++) {
+            assertEquals(1, taken.get(i));
+        }
+        assertTrue(bounded.isEmpty());
+    }
+}
@@ -1,6 +1,18 @@
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.Array;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 
 // Ask Professor
@@ -12,20 +24,119 @@ public class DoublyLinkedList<T>
 
     private static class Node<T> {
         public T data;
-        public Node next;
-        public Node previous;
+        public Node<T> next;
+        public Node<T> previous;
 
         public Node (T data) {
             this.data = data;
         }
     }
 
-    private Node nil;
-    private int size;
+    // A node with room for a skip tower. Indexed lists, sentinels and
+    // handles use these; plain lists keep the smaller Node.
+    private static class IndexedNode<T> extends Node<T> {
+        public Tower<T> tower;
+
+        public IndexedNode (T data) {
+            super(data);
+        }
+    }
+
+    // A node handed out as a NodeRef. owner is the list it is linked into,
+    // or null once it has been removed.
+    private static final class HandleNode<T> extends IndexedNode<T> implements NodeRef<T> {
+        public DoublyLinkedList<?> owner;
+
+        public HandleNode (T data) {
+            super(data);
+        }
+
+        public T get() {
+            return data;
+        }
+
+        public boolean isLinked() {
+            return owner != null;
+        }
+    }
+
+    // Arrays of a generic type can only be made raw
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newNodes(int length) {
+        return (Node<T>[]) new Node<?>[length];
+    }
+
+    // Skip links above a node, only present while the list is indexed.
+    // Level k of a tower links to the nearest node with a taller tower
+    // and width[k] is the number of positions that link jumps over.
+    private static class Tower<T> {
+        public Node<T>[] next;
+        public Node<T>[] previous;
+        public int[] width;
+
+        public Tower(int height) {
+            next = newNodes(height);
+            previous = newNodes(height);
+            width = new int[height];
+        }
+    }
+
+    // A node and its position. Lookups replace the whole pair and read it
+    // once, so concurrent readers of an unchanged list never combine one
+    // thread's node with another thread's index.
+    private static final class Finger<T> {
+        public final Node<T> node;
+        public final int index;
+
+        public Finger (Node<T> node, int index) {
+            this.node = node;
+            this.index = index;
+        }
+    }
+
+    // Lists made by clone() share one chain until one of them changes it.
+    // lists counts the lists still reading the chain; the first of them to
+    // write takes a private copy and leaves.
+    private static class Share {
+        public int lists = 1;
+    }
+
+    // How far a cached finger may be from the target before an indexed
+    // list prefers its skip index
+    private static final int FINGER_REACH = 32;
+
+    // The shortest walk after which a lookup moves the finger to its target
+    private static final int FINGER_STEP = 8;
+
+    // The chain is written element by element in writeObject
+    private transient IndexedNode<T> nil;
+    private transient int size;
+    private transient SkipIndex index;
+    private transient Share share;
+    private transient HashIndex hashIndex;
+
+    // Number of HandleNodes in the chain
+    private transient int handles;
+
+    // Last node resolved by position, so loops calling get(i) continue
+    // from where the previous call stopped instead of from an end.
+    private transient Finger<T> finger;
+
+    // Chooses the indexing mode from the operation mix, null unless
+    // setAdaptive(true) was called
+    private transient AdaptivePolicy adaptive;
+
+    // Optional instrumentation, null unless setMetrics was called
+    private transient ListMetrics metrics;
+
+    // Free list of detached nodes, chained through next
+    private transient Node<T> pool;
+    private transient int pooledNodes;
+    private int poolCapacity;
 
     // Constructors
     public DoublyLinkedList() {
-        nil = new Node(null);
+        nil = new IndexedNode<T>(null);
         nil.previous = nil;
         nil.next = nil;
         size = 0;
@@ -38,11 +149,40 @@ public class DoublyLinkedList<T>
 
     // Clonable Interface Override Requirements
 
+    // O(1): the copy shares this chain until either list is changed. Lists
+    // holding handles are copied at once, so the handles stay with them.
     @Override
     public Object clone() {
-        DoublyLinkedList<T> copy = new DoublyLinkedList();
+        return copy();
+    }
+
+    private DoublyLinkedList<T> copy() {
+        DoublyLinkedList<T> copy = new DoublyLinkedList<T>();
+        if (handles > 0) {
+            copy.poolCapacity = this.poolCapacity;
+            copy.setIndexed(isIndexed());
+            copy.setHashIndexed(isHashIndexed());
+            copy.addAll(this);
+            copy.metrics = this.metrics;
+            copy.copyAdaptive(this);
+            return copy;
+        }
+        if (share == null) {
+            share = new Share();
+        }
+        share.lists++;
+        copy.share = share;
+        copy.metrics = this.metrics;
         copy.nil = this.nil;
         copy.size = this.size;
+        copy.poolCapacity = this.poolCapacity;
+        if (index != null) {
+            copy.index = copy.new SkipIndex(index);
+        }
+        if (hashIndex != null) {
+            copy.hashIndex = copy.new HashIndex(hashIndex);
+        }
+        copy.copyAdaptive(this);
         return copy;
     }
 
@@ -56,20 +196,20 @@ public class DoublyLinkedList<T>
 
     @Override
     public void add(int index, T value) {
-        Node<T> newNode = new Node(value);
-        Node<T> nextNode = getNodeAt(index);
-        newNode.next = nextNode;
-        newNode.previous = nextNode.previous;
-        nextNode.previous.next = newNode;
-        nextNode.previous = newNode;
-        size++;
+        unshare();
+        // Looked up first so an invalid index does not use up a pooled node
+        Node<T> nextNode = index == size ? nil : getNodeAt(index);
+        Node<T> newNode = newNode(value);
+        linkBefore(newNode, nextNode);
+        rememberNode(newNode, index);
     }
 
     @Override
     public boolean addAll(Collection<? extends T> collection) {
+        unshare();
         boolean addedObjects = false;
         for (T value : collection) {
-            Node<T> newNode = new Node(value);
+            Node<T> newNode = newNode(value);
             addNodeToTail(newNode);
             addedObjects = true;
         }
@@ -79,7 +219,7 @@ public class DoublyLinkedList<T>
     @Override
     public boolean addAll(int index, Collection<? extends T> collection) {
         boolean addedObjects = false;
-        ListIterator iterator = listIterator(index);
+        ListIterator<T> iterator = listIterator(index);
         for (T value : collection) {
             iterator.add(value);
             addedObjects = true;
@@ -89,21 +229,42 @@ public class DoublyLinkedList<T>
 
     @Override
     public void clear() {
-        while(size > 0) {
-            removeLast();
+        if (share != null) {
+            leaveShare();
+            return;
+        }
+        if (handles > 0) {
+            releaseHandles();
         }
+        Node<T> node = nil.next;
+        while (node != nil && pooledNodes < poolCapacity) {
+            Node<T> nextNode = node.next;
+            recycle(node);
+            node = nextNode;
+        }
+        detachAll();
     }
 
     @Override
     public boolean contains(Object o) {
+        if (hashIndex != null) {
+            return hashIndex.contains(o);
+        }
+        ListMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int traversed = 0;
         Node<T> searchNode = nil.previous;
         while(searchNode != nil) {
-            if (searchNode.data.equals(o)) {
-                return true;
+            traversed++;
+            if (Objects.equals(searchNode.data, o)) {
+                break;
             }
             searchNode = searchNode.previous;
         }
-        return false;
+        if (metrics != null) {
+            metrics.record(ListMetrics.Operation.CONTAINS, traversed, size, start);
+        }
+        return searchNode != nil;
     }
 
     @Override
@@ -114,51 +275,86 @@ public class DoublyLinkedList<T>
 
     @Override
     public int indexOf(Object o) {
+        if (hashIndex != null && !hashIndex.contains(o)) {
+            return -1;
+        }
+        if (hashIndex != null && this.index != null) {
+            return this.index.positionOf(hashIndex.first(o));
+        }
+        ListMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
         int index = 0;
         Node<T> searchNode = nil.next;
 
         while(searchNode != nil) {
-            if (searchNode.data.equals(o)) {
-                return index;
+            if (Objects.equals(searchNode.data, o)) {
+                break;
             }
             index++;
             searchNode = searchNode.next;
         }
-        return -1;
+        if (metrics != null) {
+            metrics.record(ListMetrics.Operation.INDEX_OF, searchNode != nil ? index + 1 : size, size, start);
+        }
+        return searchNode != nil ? index : -1;
     }
 
     @Override
     public int lastIndexOf(Object o) {
+        if (hashIndex != null && !hashIndex.contains(o)) {
+            return -1;
+        }
+        if (hashIndex != null && this.index != null) {
+            return this.index.positionOf(hashIndex.last(o));
+        }
+        ListMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
         int index = size - 1;
         Node<T> searchNode = nil.previous;
 
         while(searchNode != nil) {
-            if (searchNode.data.equals(o)) {
-                return index;
+            if (Objects.equals(searchNode.data, o)) {
+                break;
             }
             index--;
             searchNode = searchNode.previous;
         }
-        return -1;
+        if (metrics != null) {
+            metrics.record(ListMetrics.Operation.LAST_INDEX_OF, size - index - (searchNode != nil ? 0 : 1), size, start);
+        }
+        return index;
     }
 
     @Override
     public ListIterator<T> listIterator(int index) {
-        verifyIndex(index);
+        if (index != size) {
+            verifyIndex(index);
+        }
         return new LinkedListIterator(index);
     }
 
     @Override
     public T remove(int index) {
+        unshare();
         Node<T> removedNode = getNodeAt(index);
-        removedNode.next.previous = removedNode.previous;
-        removedNode.previous.next = removedNode.next;
-        size--;
-        return removedNode.data;
+        Node<T> nextNode = removedNode.next;
+        T removedData = removedNode.data;
+        removeNode(removedNode);
+        rememberNode(nextNode, index);
+        return removedData;
     }
 
     @Override
     public boolean remove(Object o) {
+        if (hashIndex != null) {
+            unshare();
+            Node<T> node = hashIndex.first(o);
+            if (node == null) {
+                return false;
+            }
+            removeNode(node);
+            return true;
+        }
         int returnIndex = indexOf(o);
         if (returnIndex >= 0) {
             remove(returnIndex);
@@ -169,9 +365,10 @@ public class DoublyLinkedList<T>
 
     @Override
     public T set(int index, T element) {
+        unshare();
         Node<T> searchNode = getNodeAt(index);
         T oldNodeData = searchNode.data;
-        searchNode.data = element;
+        setData(searchNode, element);
         return oldNodeData;
     }
 
@@ -193,15 +390,17 @@ public class DoublyLinkedList<T>
     }
 
     @Override
-    public <T> T[] toArray(T[] array) {
+    @SuppressWarnings("unchecked")
+    public <E> E[] toArray(E[] array) {
         if (size > array.length) {
-            array = (T[]) Array.newInstance(array.getClass().getComponentType(), size);
+            array = (E[]) Array.newInstance(array.getClass().getComponentType(), size);
         } else if (size < array.length){
             array[size] = null;
         }
+        Object[] result = array;
         Node<T> searchNode = nil.next;
         for (int i = 0; i < size; i++) {
-            array[i] = searchNode != nil ? searchNode.data : null;
+            result[i] = searchNode != nil ? searchNode.data : null;
             searchNode = searchNode.next;
         }
         return array;
@@ -210,23 +409,16 @@ public class DoublyLinkedList<T>
     // Deque Interface Method Requirements
     @Override
     public void addFirst(T value) {
-        Node newNode = new Node(value);
-        Node temp = nil.next;
-        newNode.next = temp;
-        temp.previous = newNode;
-        newNode.previous = nil;
-        nil.next = newNode;
-        size++;
+        unshare();
+        Node<T> newNode = newNode(value);
+        linkBefore(newNode, nil.next);
     }
 
     @Override
     public void addLast(T value) {
-        Node newNode = new Node(value);
-        newNode.next = nil;
-        nil.previous.next = newNode;
-        newNode.previous = nil.previous;
-        nil.previous = newNode;
-        size++;
+        unshare();
+        Node<T> newNode = newNode(value);
+        linkBefore(newNode, nil);
     }
 
     @Override
@@ -251,9 +443,13 @@ public class DoublyLinkedList<T>
             }
 
             public void remove() {
-                if (lastReturned == nil) {
+                if (lastReturned == null) {
                     throw new NoSuchElementException("No element to remove");
                 }
+                if (unshare()) {
+                    next = position < 0 ? nil : getNodeAt(position);
+                    lastReturned = next.next;
+                }
                 removeNode(lastReturned);
                 lastReturned = null;
             }
@@ -270,7 +466,7 @@ public class DoublyLinkedList<T>
         if ( isEmpty() ) {
             throw new NoSuchElementException("The list is empty");
         }
-        return (T) nil.next.data;
+        return nil.next.data;
     }
 
     @Override
@@ -278,7 +474,7 @@ public class DoublyLinkedList<T>
         if ( isEmpty() ) {
             throw new NoSuchElementException("The list is empty");
         }
-        return (T) nil.previous.data;
+        return nil.previous.data;
     }
 
     @Override
@@ -359,13 +555,14 @@ public class DoublyLinkedList<T>
         if( isEmpty() ) {
             throw new NoSuchElementException("The list is empty");
         }
-        Node firstNode = nil.next;
-        firstNode.next.previous = nil;
-        nil.next = firstNode.next;
+        unshare();
+        Node<T> firstNode = nil.next;
+        T firstData = firstNode.data;
+        unlink(firstNode);
         firstNode.next = null;
         firstNode.previous = null;
-        size--;
-        return (T) firstNode.data;
+        recycle(firstNode);
+        return firstData;
     }
 
     @Override
@@ -378,20 +575,30 @@ public class DoublyLinkedList<T>
         if( isEmpty() ) {
             throw new NoSuchElementException("The list is empty");
         }
-        Node lastNode = nil.previous;
-        lastNode.previous.next = nil;
-        nil.previous = lastNode.previous;
+        unshare();
+        Node<T> lastNode = nil.previous;
+        T lastData = lastNode.data;
+        unlink(lastNode);
         lastNode.next = null;
         lastNode.previous = null;
-        size--;
-        return (T) lastNode.data;
+        recycle(lastNode);
+        return lastData;
     }
 
     @Override
     public boolean removeLastOccurrence(Object o) {
+        unshare();
+        if (hashIndex != null) {
+            Node<T> node = hashIndex.last(o);
+            if (node == null) {
+                return false;
+            }
+            removeNode(node);
+            return true;
+        }
         Node<T> searchNode = nil.previous;
         while (searchNode != nil) {
-            if (searchNode.data.equals(o)) {
+            if (Objects.equals(searchNode.data, o)) {
                 removeNode(searchNode);
                 return true;
             }
@@ -410,13 +617,13 @@ public class DoublyLinkedList<T>
     public boolean equals(Object o) {
         if (o == this) return true;
         if(!(o instanceof DoublyLinkedList)) return false;
-        DoublyLinkedList dList = (DoublyLinkedList) o;
+        DoublyLinkedList<?> dList = (DoublyLinkedList<?>) o;
         if(size!=dList.size()) return false;
 
-        Iterator iterator = listIterator();
-        Iterator dListIterator = dList.listIterator();
+        Iterator<T> iterator = listIterator();
+        Iterator<?> dListIterator = dList.listIterator();
         while(iterator.hasNext()) {
-            if(!iterator.next().equals(dListIterator.next())) {
+            if(!Objects.equals(iterator.next(), dListIterator.next())) {
                 return false;
             }
         }
@@ -425,145 +632,2103 @@ public class DoublyLinkedList<T>
 
     @Override
     public String toString() {
-        if ( isEmpty() ) {
-            return "";
+        return toString(Integer.MAX_VALUE);
+    }
+
+    // Splits without copying: each half keeps its first node and position,
+    // so parallel streams hand out node ranges directly.
+    @Override
+    public Spliterator<T> spliterator() {
+        return new NodeSpliterator(null, 0, -1, null);
+    }
+
+
+    // Indexed Mode
+    // Keeps a skip index over the nodes so get, set, add, remove and
+    // listIterator by position take O(log n) instead of walking the chain.
+    // Head and tail operations stay O(1) expected.
+
+    public void setIndexed(boolean indexed) {
+        if (indexed == isIndexed()) {
+            return;
         }
-        Node<T> searchNode = nil.next;
-        String output = searchNode.data.toString();
+        if (!indexed && share != null) {
+            // The towers may still serve the other lists on this chain
+            index = null;
+            return;
+        }
+        unshare();
+        if (indexed) {
+            index = new SkipIndex();
+            toIndexedNodes();
+            index.rebuild();
+        } else {
+            index.discard();
+            index = null;
+        }
+    }
 
-        while(searchNode.next != nil) {
-            searchNode = searchNode.next;
-            output += (" ==> " + searchNode.data.toString());
+    // Swaps every plain node for an IndexedNode in place, so the skip index
+    // can give it a tower. Pooled plain nodes are dropped for the same
+    // reason. Iterators open at the time must not be used afterwards.
+    private void toIndexedNodes() {
+        pool = null;
+        pooledNodes = 0;
+        finger = null;
+        Node<T> last = nil;
+        for (Node<T> node = nil.next; node != nil; node = node.next) {
+            if (!(node instanceof IndexedNode)) {
+                Node<T> copy = new IndexedNode<T>(node.data);
+                copy.next = node.next;
+                node = copy;
+            }
+            node.previous = last;
+            last.next = node;
+            last = node;
+        }
+        last.next = nil;
+        nil.previous = last;
+        if (hashIndex != null) {
+            hashIndex = new HashIndex();
+            hashIndex.rebuild();
         }
-        return output;
     }
 
+    public boolean isIndexed() {
+        return index != null;
+    }
 
-    // Helper Methods
 
-    private void verifyIndex(int index) {
-        if(index < 0 || index >= size) {
-            throw new IndexOutOfBoundsException("Invalid index");
+    // Adaptive Mode
+    // Samples the operation mix in windows of ADAPT_WINDOW operations and
+    // turns the skip index on while positional lookups walk far, and off
+    // again once the list is mostly changed at its ends. Only the index
+    // comes and goes; the nodes stay where they are, so iterators, handles
+    // and the hash index are not affected by a switch. Because lookups
+    // count and may switch, a list in adaptive mode is not safe for
+    // concurrent readers, unlike an unchanged list otherwise.
+
+    private static final int ADAPT_WINDOW = 4096;
+
+    // Estimated costs, in steps along the chain: an indexed lookup per
+    // level of the index, an indexed insert or removal on top of the
+    // plain one, and building the index per node
+    private static final int INDEXED_LOOKUP_COST = 16;
+    private static final int INDEXED_UPDATE_COST = 48;
+    private static final int INDEX_BUILD_COST = 32;
+
+    public void setAdaptive(boolean adaptive) {
+        if (adaptive != isAdaptive()) {
+            this.adaptive = adaptive ? new AdaptivePolicy() : null;
         }
     }
 
-    private boolean closerToFront(int index) {
-        verifyIndex(index);
-        if (index < size / 2) {
-            return true;
-        }
-        return false;
+    public boolean isAdaptive() {
+        return adaptive != null;
     }
 
-    private Node getNodeAt(int index) {
-        verifyIndex(index);
-        Node<T> searchNode = nil;
+    // A copy carries on the source's current window
+    private void copyAdaptive(DoublyLinkedList<T> source) {
+        adaptive = source.adaptive == null ? null : new AdaptivePolicy(source.adaptive);
+    }
 
-        if (closerToFront(index)) {
-            while (index-- >= 0) {
-                searchNode = searchNode.next;
-            }
+
+    // Hash Index
+    // Keeps a map from each element to the nodes holding it, so contains,
+    // remove(Object) and the occurrence removals take O(1) expected time
+    // when the element is held once. Elements must not change their
+    // hashCode while they are in a hash indexed list.
+
+    public void setHashIndexed(boolean hashIndexed) {
+        if (hashIndexed == isHashIndexed()) {
+            return;
+        }
+        if (hashIndexed) {
+            hashIndex = new HashIndex();
+            hashIndex.rebuild();
         } else {
-            while (++index <= size) {
-                searchNode = searchNode.previous;
-            }
+            hashIndex = null;
         }
-        return searchNode;
     }
 
-    private void addNodeToTail(Node<T> newNode) {
-        newNode.next = nil;
-        nil.previous.next = newNode;
-        newNode.previous = nil.previous;
-        nil.previous = newNode;
-        size++;
+    public boolean isHashIndexed() {
+        return hashIndex != null;
     }
 
-    private void removeNode(Node<T> node) {
-        node.next.previous = node.previous;
-        node.previous.next = node.next;
-        size--;
+
+    // Node Handles
+    // Elements added through these methods come with a NodeRef that finds
+    // their node directly, so they can later be removed, moved or changed
+    // in O(1) (O(log n) while indexed) without searching.
+
+    public NodeRef<T> addFirstHandle(T value) {
+        unshare();
+        HandleNode<T> newNode = new HandleNode<T>(value);
+        linkBefore(newNode, nil.next);
+        return newNode;
     }
 
-    private final class LinkedListIterator<T> implements ListIterator<T> {
-        private Node<T> next;
-        private Node<T> previous;
-        private Node<T> lastReturned;
-        private int position;
+    public NodeRef<T> addLastHandle(T value) {
+        unshare();
+        HandleNode<T> newNode = new HandleNode<T>(value);
+        linkBefore(newNode, nil);
+        return newNode;
+    }
 
-        LinkedListIterator(int index) {
-            next = getNodeAt(index);
-            previous = next.previous;
-            position = index;
-        }
+    public NodeRef<T> insertAfter(NodeRef<T> ref, T value) {
+        HandleNode<T> node = verifyHandle(ref);
+        HandleNode<T> newNode = new HandleNode<T>(value);
+        linkBefore(newNode, node.next);
+        return newNode;
+    }
 
-        public int nextIndex() {
-            return position;
+    public T removeHandle(NodeRef<T> ref) {
+        HandleNode<T> node = verifyHandle(ref);
+        unlink(node);
+        node.next = null;
+        node.previous = null;
+        return node.data;
+    }
+
+    public void moveToFront(NodeRef<T> ref) {
+        HandleNode<T> node = verifyHandle(ref);
+        if (node != nil.next) {
+            unlink(node);
+            linkBefore(node, nil.next);
         }
+    }
 
-        public int previousIndex() {
-            return position - 1;
+    public void moveToBack(NodeRef<T> ref) {
+        HandleNode<T> node = verifyHandle(ref);
+        if (node != nil.previous) {
+            unlink(node);
+            linkBefore(node, nil);
         }
+    }
 
-        @Override
-        public void remove() {
-            size--;
-            position--;
-            next = lastReturned.next;
-            previous = lastReturned.previous;
-            removeNode( (Node) lastReturned);
-            lastReturned = null;
+    public T set(NodeRef<T> ref, T value) {
+        HandleNode<T> node = verifyHandle(ref);
+        T oldData = node.data;
+        setData(node, value);
+        return oldData;
+    }
+
+
+    // Bulk Transfer
+    // Whole chains are relinked at the sentinels, so moving elements between
+    // lists costs O(1) plus the position lookup. Indexed lists also splice
+    // their skip towers level by level, which adds O(log n).
+
+    public void splice(int index, DoublyLinkedList<T> other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot splice a list into itself");
+        }
+        unshare();
+        other.unshare();
+        if (index != size) {
+            verifyIndex(index);
         }
+        if (other.isEmpty()) {
+            return;
+        }
+        boolean otherIndexed = other.isIndexed();
+        other.setIndexed(isIndexed());
+        if (index == size) {
+            appendChain(other);
+        } else if (this.index != null) {
+            DoublyLinkedList<T> tail = splitAt(index);
+            appendChain(other);
+            appendChain(tail);
+        } else {
+            Node<T> successor = getNodeAt(index);
+            Node<T> first = other.nil.next;
+            Node<T> last = other.nil.previous;
+            first.previous = successor.previous;
+            successor.previous.next = first;
+            last.next = successor;
+            successor.previous = last;
+            if (finger != null && finger.index >= index) {
+                finger = new Finger<T>(finger.node, finger.index + other.size);
+            }
+            if (hashIndex != null) {
+                hashIndex.addAll(first, successor);
+            }
+            takeHandles(other, first, successor);
+            size += other.size;
+            other.detachAll();
+        }
+        other.setIndexed(otherIndexed);
+    }
 
-        @Override
-        public void set(T value) {
-            if (lastReturned == null) {
-                throw new NoSuchElementException("No element to set");
+    public void transferTo(DoublyLinkedList<T> target) {
+        target.splice(target.size(), this);
+    }
+
+    // Cuts the list in two: this list keeps [0, index) and the returned
+    // list holds [index, size).
+    public DoublyLinkedList<T> splitAt(int index) {
+        unshare();
+        if (index != size) {
+            verifyIndex(index);
+        }
+        DoublyLinkedList<T> tail = new DoublyLinkedList<T>();
+        tail.setIndexed(isIndexed());
+        tail.setHashIndexed(isHashIndexed());
+        if (index == 0) {
+            if (size > 0) {
+                tail.appendChain(this);
             }
-            lastReturned.data = value;
+            return tail;
+        }
+        if (index == size) {
+            return tail;
+        }
+        Node<T> first = getNodeAt(index);
+        if (this.index != null) {
+            this.index.splitInto(first, tail);
+        }
+        Node<T> last = nil.previous;
+        first.previous.next = nil;
+        nil.previous = first.previous;
+        first.previous = tail.nil;
+        tail.nil.next = first;
+        last.next = tail.nil;
+        tail.nil.previous = last;
+        tail.size = size - index;
+        size = index;
+        if (hashIndex != null) {
+            hashIndex.removeAll(first, tail.nil);
+            tail.hashIndex.addAll(first, tail.nil);
         }
+        tail.takeHandles(this, first, tail.nil);
+        if (finger != null && finger.index >= index) {
+            finger = null;
+        }
+        return tail;
+    }
 
-        @Override
-        public void add(T value) {
-            size++;
-            position++;
-            Node<T> newNode = new Node(value);
-            newNode.next = next;
-            newNode.previous = previous;
-            previous.next = newNode;
-            next.previous = newNode;
-            previous = newNode;
-            lastReturned = null;
+    // Batch Removal
+    // Up to n nodes are cut from one end with a single relink at the
+    // sentinel. The walk that finds the cut also takes the nodes out of the
+    // skip index from that end, so the cost depends on n, not on size.
+
+    // Removes the first n elements (or all, if fewer) and returns them as
+    // a list in the same order
+    public DoublyLinkedList<T> pollFirst(int n) {
+        return detachEnd(n, true);
+    }
+
+    // Removes the last n elements (or all, if fewer) and returns them as
+    // a list in the same order
+    public DoublyLinkedList<T> pollLast(int n) {
+        return detachEnd(n, false);
+    }
+
+    public int drainTo(Collection<? super T> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    // Moves up to maxElements from the front into collection in one walk.
+    // If collection throws, the elements it already accepted are still
+    // removed from this list.
+    public int drainTo(Collection<? super T> collection, int maxElements) {
+        Objects.requireNonNull(collection);
+        if (collection == this) {
+            throw new IllegalArgumentException("Cannot drain a list into itself");
+        }
+        if (maxElements <= 0) {
+            return 0;
+        }
+        unshare();
+        Node<T> first = nil.next;
+        Node<T> node = first;
+        int drained = 0;
+        try {
+            while (node != nil && drained < maxElements) {
+                collection.add(node.data);
+                node = node.next;
+                drained++;
+            }
+        } finally {
+            if (drained > 0) {
+                cutEnd(node, drained, true);
+                releaseRun(first, node);
+            }
         }
+        return drained;
+    }
 
-        public boolean hasNext() {
-            return (next != nil);
+    // Bulk Mutation
+    // Filters walk the chain once and cut each run of removed nodes out
+    // with one relink. The skip index is rebuilt once at the end instead of
+    // being updated per node.
+
+    // Non-set collections at least this large are copied into a HashSet
+    // before being searched once per node
+    private static final int HASH_ARGUMENT_THRESHOLD = 16;
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        Objects.requireNonNull(filter);
+        return removeMatching(filter);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        Objects.requireNonNull(collection);
+        if (hashIndex != null && !(collection instanceof Set) && collection.size() < size) {
+            // Few values against many nodes: look the values up instead
+            unshare();
+            int before = size;
+            for (Object o : collection) {
+                for (Node<T> node : hashIndex.nodesOf(o)) {
+                    removeNode(node);
+                }
+            }
+            return size != before;
         }
+        Collection<?> searched = searchable(collection);
+        return removeMatching(value -> searched.contains(value));
+    }
 
-        @Override
-        public T next() {
-            if (next == nil) {
-                throw new NoSuchElementException("No next element exists.");
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        Objects.requireNonNull(collection);
+        Collection<?> searched = searchable(collection);
+        return removeMatching(value -> !searched.contains(value));
+    }
+
+    // Nodes whose value comes back unchanged are not written
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        Objects.requireNonNull(operator);
+        unshare();
+        for (Node<T> node = nil.next; node != nil; node = node.next) {
+            T value = operator.apply(node.data);
+            if (value != node.data) {
+                setData(node, value);
             }
-            position++;
-            lastReturned = previous = next;
-            next = lastReturned.next;
-            return lastReturned.data;
         }
+    }
 
-        public boolean hasPrevious() {
-            return (previous != nil);
+
+    // Sorting
+    // Sorts relink the nodes instead of copying the elements out and back.
+    // Merging only rewrites next links, so if the comparator throws the
+    // previous links still hold the original order and the list is put
+    // back as it was. A null comparator means natural ordering.
+
+    // Lists shorter than this are sorted on the calling thread by
+    // parallelSort
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 15;
+
+    // Stable bottom-up merge sort. Runs of 1, 2, 4, ... nodes are kept in
+    // bins and merged as each node arrives, so it needs no extra memory
+    // besides the bins.
+    @Override
+    public void sort(Comparator<? super T> comparator) {
+        unshare();
+        if (size < 2) {
+            return;
+        }
+        Comparator<? super T> order = comparatorOrNatural(comparator);
+        Node<T> head = detachChain();
+        try {
+            head = sortChain(head, order);
+        } catch (RuntimeException | Error e) {
+            restoreNextLinks();
+            throw e;
         }
+        relinkChain(head);
+    }
 
-        @Override
-        public T previous() {
-            if (previous == nil) {
-                throw new NoSuchElementException("No previous element exists.");
-            }
+    // Sorts segments in the common fork-join pool and merges them pairwise
+    public void parallelSort(Comparator<? super T> comparator) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (size < PARALLEL_SORT_THRESHOLD || parallelism < 2) {
+            sort(comparator);
+            return;
+        }
+        unshare();
+        Comparator<? super T> order = comparatorOrNatural(comparator);
+        int segment = Math.max(PARALLEL_SORT_THRESHOLD / 2, size / (parallelism << 2));
+        Node<T> head = detachChain();
+        try {
+            head = ForkJoinPool.commonPool().invoke(new SortTask<T>(head, size, segment, order));
+        } catch (RuntimeException | Error e) {
+            restoreNextLinks();
+            throw e;
+        }
+        relinkChain(head);
+    }
+
+    // Inserts value after the last element not greater than it, searching
+    // from the back. Returns the position it was inserted at.
+    public int insertSorted(T value, Comparator<? super T> comparator) {
+        unshare();
+        Comparator<? super T> order = comparatorOrNatural(comparator);
+        Node<T> successor = nil;
+        int position = size;
+        while (successor.previous != nil && order.compare(successor.previous.data, value) > 0) {
+            successor = successor.previous;
             position--;
-            lastReturned = next = previous;
-            previous = lastReturned.previous;
-            return lastReturned.data;
+        }
+        linkBefore(newNode(value), successor);
+        return position;
+    }
+
+    public void merge(DoublyLinkedList<T> sortedOther) {
+        merge(sortedOther, null);
+    }
+
+    // Moves every node of sortedOther into this sorted list, leaving it
+    // empty. Both lists must already be sorted by comparator. Equal
+    // elements of this list come first.
+    public void merge(DoublyLinkedList<T> sortedOther, Comparator<? super T> comparator) {
+        if (sortedOther == this) {
+            throw new IllegalArgumentException("Cannot merge a list into itself");
+        }
+        unshare();
+        sortedOther.unshare();
+        if (sortedOther.isEmpty()) {
+            return;
+        }
+        Comparator<? super T> order = comparatorOrNatural(comparator);
+        boolean otherIndexed = sortedOther.isIndexed();
+        sortedOther.setIndexed(false);
+        Node<T> head = detachChain();
+        Node<T> otherHead = sortedOther.detachChain();
+        try {
+            head = mergeChains(head, otherHead, order);
+        } catch (RuntimeException | Error e) {
+            restoreNextLinks();
+            sortedOther.restoreNextLinks();
+            sortedOther.setIndexed(otherIndexed);
+            throw e;
+        }
+        // The previous links of sortedOther still run through its own nodes
+        if (hashIndex != null || sortedOther.handles > 0) {
+            Node<T> node = sortedOther.nil.previous;
+            while (node != sortedOther.nil) {
+                if (hashIndex != null) {
+                    hashIndex.add(node);
+                }
+                if (node instanceof HandleNode) {
+                    ((HandleNode<T>) node).owner = this;
+                    handles++;
+                }
+                node = node.previous;
+            }
+            sortedOther.handles = 0;
+        }
+        size += sortedOther.size;
+        sortedOther.detachAll();
+        sortedOther.setIndexed(otherIndexed);
+        relinkChain(head);
+    }
+
+
+    // Node Recycling
+    // Removed nodes are kept on a bounded free list and reused by later
+    // inserts, so a steady stream of addLast/removeFirst allocates nothing.
+
+    public void setNodeRecycling(int maxPooledNodes) {
+        if (maxPooledNodes < 0) {
+            throw new IllegalArgumentException("Pool size cannot be negative");
+        }
+        poolCapacity = maxPooledNodes;
+        while (pooledNodes > poolCapacity) {
+            pool = pool.next;
+            pooledNodes--;
+        }
+    }
+
+    public int getNodeRecycling() {
+        return poolCapacity;
+    }
+
+
+    // Metrics
+    // Attaching a ListMetrics records the searching operations of this list
+    // and of its clones. Pass null to stop recording.
+
+    public void setMetrics(ListMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ListMetrics getMetrics() {
+        return metrics;
+    }
+
+
+    // Snapshots
+    // clone() and snapshot() share the chain instead of copying it. The
+    // first write to any list on a shared chain copies the chain for that
+    // list, once, so open iterators and snapshots of the others stay
+    // consistent. A doubly linked chain has no parts that can be shared
+    // separately, so the copy is always the whole chain.
+
+    public List<T> snapshot() {
+        return Collections.unmodifiableList(copy());
+    }
+
+    public boolean isShared() {
+        return share != null && share.lists > 1;
+    }
+
+
+    // Text Export
+    // Elements are appended straight to the target one at a time, so
+    // printing a list takes linear time and no copy of the text. When
+    // maxElements cuts the list short, the rest is summed up as
+    // "... N more".
+
+    private static final String SEPARATOR = " ==> ";
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    public String toString(int maxElements) {
+        StringBuilder output = new StringBuilder();
+        try {
+            appendTo(output, SEPARATOR, value -> String.valueOf(value), maxElements);
+        } catch (IOException e) {
+            // A StringBuilder does not throw
+            throw new UncheckedIOException(e);
+        }
+        return output.toString();
+    }
+
+    public <A extends Appendable> A appendTo(A out) throws IOException {
+        return appendTo(out, SEPARATOR, value -> String.valueOf(value), Integer.MAX_VALUE);
+    }
+
+    public <A extends Appendable> A appendTo(A out, CharSequence separator,
+            Function<? super T, ? extends CharSequence> formatter, int maxElements) throws IOException {
+        if (maxElements < 0) {
+            throw new IllegalArgumentException("Element limit cannot be negative");
+        }
+        ListMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int written = 0;
+        for (Node<T> node = nil.next; node != nil; node = node.next) {
+            if (written > 0) {
+                out.append(separator);
+            }
+            if (written == maxElements) {
+                out.append("... ").append(Integer.toString(size - written)).append(" more");
+                break;
+            }
+            out.append(formatter.apply(node.data));
+            written++;
+        }
+        if (metrics != null) {
+            metrics.record(ListMetrics.Operation.TO_STRING, written, size, start);
+        }
+        return out;
+    }
+
+    // The writer is flushed but left open
+    public void writeTo(Writer writer) throws IOException {
+        appendTo(writer);
+        writer.flush();
+    }
+
+    public void writeTo(WritableByteChannel channel, Charset charset) throws IOException {
+        writeTo(Channels.newWriter(channel, charset.newEncoder(), WRITE_BUFFER_SIZE));
+    }
+
+
+    // Unlocked Reads
+    // For StampedDoublyLinkedList, which runs them while a writer may be
+    // changing the list and checks afterwards that none did. They write no
+    // fields, so readers never disturb each other, and every walk stops
+    // after size steps, so a read that races a writer ends with a wrong
+    // answer or an exception instead of looping.
+
+    T readAt(int index) {
+        int count = size;
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        Node<T> node = nil;
+        if (index < count / 2) {
+            for (int i = 0; i <= index; i++) {
+                node = node.next;
+            }
+        } else {
+            for (int i = count; i > index; i--) {
+                node = node.previous;
+            }
+        }
+        return node.data;
+    }
+
+    int readIndexOf(Object o, boolean fromLast) {
+        int count = size;
+        Node<T> node = fromLast ? nil.previous : nil.next;
+        for (int i = 0; i < count && node != nil; i++) {
+            if (Objects.equals(node.data, o)) {
+                return fromLast ? count - 1 - i : i;
+            }
+            node = fromLast ? node.previous : node.next;
+        }
+        return -1;
+    }
+
+
+    // Serialization
+    // The elements are written as one flat sequence after the size, and
+    // read back by linking the chain in a single pass.
+
+    private static final int LOAD_BATCH = 4096;
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        out.writeBoolean(index != null);
+        out.writeBoolean(hashIndex != null);
+        for (Node<T> node = nil.next; node != nil; node = node.next) {
+            out.writeObject(node.data);
+        }
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        nil = new IndexedNode<T>(null);
+        nil.previous = nil;
+        nil.next = nil;
+        int count = in.readInt();
+        boolean indexed = in.readBoolean();
+        boolean hashIndexed = in.readBoolean();
+        if (count < 0) {
+            throw new java.io.StreamCorruptedException("Invalid size: " + count);
+        }
+        Object[] batch = new Object[Math.min(count, LOAD_BATCH)];
+        while (size < count) {
+            int batchSize = Math.min(batch.length, count - size);
+            for (int i = 0; i < batchSize; i++) {
+                batch[i] = in.readObject();
+            }
+            appendArray(batch, batchSize);
+        }
+        setIndexed(indexed);
+        setHashIndexed(hashIndexed);
+    }
+
+    // Links values[0, count) after the last node in one pass. Unindexed
+    // lists skip the per-node bookkeeping of addLast; used when loading.
+    @SuppressWarnings("unchecked")
+    void appendArray(Object[] values, int count) {
+        unshare();
+        if (index != null || hashIndex != null) {
+            for (int i = 0; i < count; i++) {
+                linkBefore(newNode((T) values[i]), nil);
+            }
+            return;
+        }
+        Node<T> last = nil.previous;
+        for (int i = 0; i < count; i++) {
+            Node<T> node = newNode((T) values[i]);
+            node.previous = last;
+            last.next = node;
+            last = node;
+        }
+        last.next = nil;
+        nil.previous = last;
+        size += count;
+    }
+
+
+    // Helper Methods
+
+    private void verifyIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+    }
+
+    private boolean closerToFront(int index) {
+        verifyIndex(index);
+        if (index < size / 2) {
+            return true;
+        }
+        return false;
+    }
+
+    private Node<T> getNodeAt(int index) {
+        verifyIndex(index);
+        ListMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (adaptive != null) {
+            adapt();
+        }
+        Finger<T> finger = this.finger;
+        int fingerDistance = finger == null ? Integer.MAX_VALUE : Math.abs(index - finger.index);
+        Node<T> searchNode;
+        int traversed;
+        if (adaptive != null) {
+            adaptive.lookups++;
+            adaptive.walkSteps += Math.min(fingerDistance, Math.min(index + 1, size - index));
+        }
+
+        if (this.index != null && fingerDistance > FINGER_REACH) {
+            searchNode = this.index.nodeAt(index);
+            traversed = -1;
+        } else if (fingerDistance <= index && fingerDistance < size - index) {
+            searchNode = finger.node;
+            for (int i = finger.index; i < index; i++) {
+                searchNode = searchNode.next;
+            }
+            for (int i = finger.index; i > index; i--) {
+                searchNode = searchNode.previous;
+            }
+            traversed = fingerDistance;
+        } else if (closerToFront(index)) {
+            searchNode = nil;
+            for (int i = index; i >= 0; i--) {
+                searchNode = searchNode.next;
+            }
+            traversed = index + 1;
+        } else {
+            searchNode = nil;
+            for (int i = index; i < size; i++) {
+                searchNode = searchNode.previous;
+            }
+            traversed = size - index;
+        }
+        // Moving the finger costs an allocation, so only a long walk moves
+        // it. Reads near an end or near the finger stay allocation free.
+        if (Math.min(fingerDistance, Math.min(index + 1, size - index)) > FINGER_STEP) {
+            this.finger = new Finger<T>(searchNode, index);
+        }
+        if (metrics != null) {
+            metrics.record(ListMetrics.Operation.POSITION_LOOKUP, traversed, size, start);
+        }
+        return searchNode;
+    }
+
+    private void rememberNode(Node<T> node, int index) {
+        if (node != nil) {
+            finger = new Finger<T>(node, index);
+        }
+    }
+
+    private void addNodeToTail(Node<T> newNode) {
+        linkBefore(newNode, nil);
+    }
+
+    private void removeNode(Node<T> node) {
+        unlink(node);
+        recycle(node);
+    }
+
+    // Moves every node of other to the end of this list. Both lists must be
+    // in the same indexing mode.
+    private void appendChain(DoublyLinkedList<T> other) {
+        if (index != null) {
+            index.append(other);
+        }
+        Node<T> first = other.nil.next;
+        Node<T> last = other.nil.previous;
+        first.previous = nil.previous;
+        nil.previous.next = first;
+        last.next = nil;
+        nil.previous = last;
+        if (hashIndex != null) {
+            hashIndex.addAll(first, nil);
+        }
+        takeHandles(other, first, nil);
+        size += other.size;
+        other.detachAll();
+    }
+
+    // Empties the list at the sentinel without touching the old nodes
+    private void detachAll() {
+        nil.next = nil;
+        nil.previous = nil;
+        size = 0;
+        finger = null;
+        if (index != null) {
+            index.reset();
+        }
+        if (hashIndex != null) {
+            hashIndex.clear();
+        }
+    }
+
+    // Gives this list a private copy of a shared chain before it is
+    // changed. Returns true when the nodes were copied, so callers holding
+    // nodes of the old chain know to find their position again.
+    private boolean unshare() {
+        if (share == null) {
+            return false;
+        }
+        boolean copied = --share.lists > 0;
+        share = null;
+        if (copied) {
+            Node<T> oldNil = nil;
+            nil = new IndexedNode<T>(null);
+            Node<T> last = nil;
+            for (Node<T> node = oldNil.next; node != oldNil; node = node.next) {
+                Node<T> copy = newNode(node.data);
+                copy.previous = last;
+                last.next = copy;
+                last = copy;
+            }
+            last.next = nil;
+            nil.previous = last;
+            finger = null;
+            if (index != null) {
+                index = new SkipIndex();
+                index.rebuild();
+            }
+            if (hashIndex != null) {
+                hashIndex = new HashIndex();
+                hashIndex.rebuild();
+            }
+        }
+        return copied;
+    }
+
+    // Drops a shared chain without copying it, leaving this list empty
+    private void leaveShare() {
+        share.lists--;
+        share = null;
+        nil = new IndexedNode<T>(null);
+        nil.previous = nil;
+        nil.next = nil;
+        size = 0;
+        finger = null;
+        if (index != null) {
+            index = new SkipIndex();
+        }
+        if (hashIndex != null) {
+            hashIndex = new HashIndex();
+        }
+    }
+
+    private Node<T> newNode(T value) {
+        Node<T> node = pool;
+        if (node == null) {
+            return index != null ? new IndexedNode<T>(value) : new Node<T>(value);
+        }
+        pool = node.next;
+        pooledNodes--;
+        node.next = null;
+        node.data = value;
+        return node;
+    }
+
+    // Keeps detached nodes for newNode to hand out again, up to the
+    // configured limit. Callers must be done reading the node. Handle
+    // nodes are never reused since a NodeRef may still point at them.
+    private void recycle(Node<T> node) {
+        if (pooledNodes < poolCapacity && !(node instanceof HandleNode)) {
+            if (node instanceof IndexedNode) {
+                ((IndexedNode<T>) node).tower = null;
+            }
+            node.data = null;
+            node.previous = null;
+            node.next = pool;
+            pool = node;
+            pooledNodes++;
+        }
+    }
+
+    // Every structural change goes through linkBefore and unlink so the
+    // optional skip index never falls out of step with the chain.
+    private void linkBefore(Node<T> newNode, Node<T> successor) {
+        if (adaptive != null) {
+            adapt();
+            adaptive.updates++;
+        }
+        if (index != null) {
+            index.link(newNode, successor);
+        }
+        if (hashIndex != null) {
+            hashIndex.add(newNode);
+        }
+        if (newNode instanceof HandleNode) {
+            ((HandleNode<T>) newNode).owner = this;
+            handles++;
+        }
+        // Only the last position leaves the finger's index unchanged. A
+        // change at the front drops it too rather than allocate a shifted
+        // one on every queue operation; the front is cheap to reach anyway.
+        if (finger != null && successor != nil) {
+            finger = null;
+        }
+        newNode.next = successor;
+        newNode.previous = successor.previous;
+        successor.previous.next = newNode;
+        successor.previous = newNode;
+        size++;
+    }
+
+    private void unlink(Node<T> node) {
+        if (adaptive != null) {
+            adaptive.updates++;
+        }
+        if (index != null) {
+            index.unlink(node);
+        }
+        if (hashIndex != null) {
+            hashIndex.remove(node);
+        }
+        if (node instanceof HandleNode) {
+            ((HandleNode<T>) node).owner = null;
+            handles--;
+        }
+        // As in linkBefore, a removal at the front drops the finger
+        if (finger != null && finger.node == node) {
+            finger = node.next != nil && node != nil.next ? new Finger<T>(node.next, finger.index) : null;
+        } else if (finger != null && node != nil.previous) {
+            finger = null;
+        }
+        node.next.previous = node.previous;
+        node.previous.next = node.next;
+        size--;
+    }
+
+    // Unlinks every node whose value matches. Each run of matching nodes
+    // is cut out when the next kept node is found, so the list stays whole
+    // if filter throws part way.
+    private boolean removeMatching(Predicate<? super T> filter) {
+        unshare();
+        int before = size;
+        Node<T> kept = nil;
+        Node<T> node = nil.next;
+        try {
+            while (node != nil) {
+                if (!filter.test(node.data)) {
+                    kept = node;
+                    node = node.next;
+                    continue;
+                }
+                Node<T> first = node;
+                int count = 0;
+                do {
+                    node = node.next;
+                    count++;
+                } while (node != nil && filter.test(node.data));
+                kept.next = node;
+                node.previous = kept;
+                size -= count;
+                releaseRun(first, node);
+                if (node != nil) {
+                    kept = node;
+                    node = node.next;
+                }
+            }
+        } finally {
+            if (size != before) {
+                finger = null;
+                if (index != null) {
+                    index = new SkipIndex();
+                    index.rebuild();
+                }
+            }
+        }
+        return size != before;
+    }
+
+    // Clears the bookkeeping of nodes first up to end after they were cut
+    // out of the chain. Plain lists with a full pool have nothing to clear.
+    private void releaseRun(Node<T> first, Node<T> end) {
+        if (index == null && hashIndex == null && handles == 0 && pooledNodes >= poolCapacity) {
+            return;
+        }
+        Node<T> node = first;
+        while (node != end) {
+            Node<T> nextNode = node.next;
+            if (hashIndex != null) {
+                hashIndex.remove(node);
+            }
+            if (node instanceof HandleNode) {
+                ((HandleNode<T>) node).owner = null;
+                ((HandleNode<T>) node).tower = null;
+                node.next = null;
+                node.previous = null;
+                handles--;
+            }
+            recycle(node);
+            node = nextNode;
+        }
+    }
+
+    private static Collection<?> searchable(Collection<?> collection) {
+        if (collection instanceof Set || collection.size() < HASH_ARGUMENT_THRESHOLD) {
+            return collection;
+        }
+        return new HashSet<Object>(collection);
+    }
+
+    // Elements that are not Comparable fail in compare, as with List.sort
+    @SuppressWarnings("unchecked")
+    private static <T> Comparator<? super T> comparatorOrNatural(Comparator<? super T> comparator) {
+        return comparator != null ? comparator : (Comparator<? super T>) Comparator.naturalOrder();
+    }
+
+    private DoublyLinkedList<T> detachEnd(int n, boolean fromFront) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        unshare();
+        if (n >= size) {
+            return splitAt(0);
+        }
+        DoublyLinkedList<T> batch = new DoublyLinkedList<T>();
+        if (n > 0) {
+            Node<T> first;
+            Node<T> last;
+            if (fromFront) {
+                first = nil.next;
+                last = first;
+                for (int i = 1; i < n; i++) {
+                    last = last.next;
+                }
+                cutEnd(last.next, n, true);
+            } else {
+                last = nil.previous;
+                first = last;
+                for (int i = 1; i < n; i++) {
+                    first = first.previous;
+                }
+                cutEnd(first.previous, n, false);
+            }
+            first.previous = batch.nil;
+            batch.nil.next = first;
+            last.next = batch.nil;
+            batch.nil.previous = last;
+            batch.size = n;
+            if (hashIndex != null) {
+                hashIndex.removeAll(first, batch.nil);
+            }
+            batch.takeHandles(this, first, batch.nil);
+        }
+        batch.setIndexed(isIndexed());
+        batch.setHashIndexed(isHashIndexed());
+        return batch;
+    }
+
+    // Unlinks the count nodes between the sentinel and keep, the node that
+    // stays at that end. The cut nodes keep their links to each other.
+    private void cutEnd(Node<T> keep, int count, boolean fromFront) {
+        if (adaptive != null) {
+            adaptive.updates += count;
+        }
+        if (index != null) {
+            index.unlinkEnd(count, fromFront);
+        }
+        if (fromFront) {
+            nil.next = keep;
+            keep.previous = nil;
+        } else {
+            nil.previous = keep;
+            keep.next = nil;
+        }
+        size -= count;
+        if (finger != null) {
+            if (fromFront ? finger.index < count : finger.index >= size) {
+                finger = null;
+            } else if (fromFront) {
+                finger = new Finger<T>(finger.node, finger.index - count);
+            }
+        }
+    }
+
+    // Ends the chain at the last node with a null next link and returns
+    // the first node, or null when empty. The sentinel and the previous
+    // links are left alone until relinkChain or restoreNextLinks.
+    private Node<T> detachChain() {
+        if (size == 0) {
+            return null;
+        }
+        nil.previous.next = null;
+        return nil.next;
+    }
+
+    // Makes the null terminated chain from head the contents of the list
+    private void relinkChain(Node<T> head) {
+        Node<T> last = nil;
+        for (Node<T> node = head; node != null; node = node.next) {
+            node.previous = last;
+            last.next = node;
+            last = node;
+        }
+        last.next = nil;
+        nil.previous = last;
+        finger = null;
+        if (index != null) {
+            index = new SkipIndex();
+            index.rebuild();
+        }
+    }
+
+    // Rewrites the next links from the previous links, undoing a failed
+    // sort or merge
+    private void restoreNextLinks() {
+        Node<T> node = nil;
+        do {
+            node.previous.next = node;
+            node = node.previous;
+        } while (node != nil);
+    }
+
+    private static <T> Node<T> sortChain(Node<T> head, Comparator<? super T> order) {
+        // bins[k] holds a sorted run of 2^k nodes that came before any node
+        // in the lower bins
+        Node<T>[] bins = newNodes(32);
+        int used = 0;
+        Node<T> node = head;
+        while (node != null) {
+            Node<T> nextNode = node.next;
+            node.next = null;
+            Node<T> carry = node;
+            int bin = 0;
+            while (bin < used && bins[bin] != null) {
+                carry = mergeChains(bins[bin], carry, order);
+                bins[bin] = null;
+                bin++;
+            }
+            bins[bin] = carry;
+            if (bin == used) {
+                used++;
+            }
+            node = nextNode;
+        }
+        Node<T> sorted = null;
+        for (int bin = 0; bin < used; bin++) {
+            if (bins[bin] != null) {
+                sorted = sorted == null ? bins[bin] : mergeChains(bins[bin], sorted, order);
+            }
+        }
+        return sorted;
+    }
+
+    // Merges two sorted null terminated chains through their next links.
+    // Ties take the node from first.
+    private static <T> Node<T> mergeChains(Node<T> first, Node<T> second, Comparator<? super T> order) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        Node<T> head;
+        if (order.compare(second.data, first.data) < 0) {
+            head = second;
+            second = second.next;
+        } else {
+            head = first;
+            first = first.next;
+        }
+        Node<T> tail = head;
+        while (first != null && second != null) {
+            if (order.compare(second.data, first.data) < 0) {
+                tail.next = second;
+                second = second.next;
+            } else {
+                tail.next = first;
+                first = first.next;
+            }
+            tail = tail.next;
+        }
+        tail.next = first != null ? first : second;
+        return head;
+    }
+
+    // Lets the adaptive policy switch indexing at the end of a window.
+    // Callers must be at a point where the chain and the index agree.
+    private void adapt() {
+        if (adaptive.lookups + adaptive.updates >= ADAPT_WINDOW && share == null) {
+            adaptive.decide();
+        }
+    }
+
+    private HandleNode<T> verifyHandle(NodeRef<T> ref) {
+        if (!(ref instanceof HandleNode) || ((HandleNode<T>) ref).owner != this) {
+            throw new IllegalArgumentException("Handle does not belong to this list");
+        }
+        return (HandleNode<T>) ref;
+    }
+
+    // Called after the nodes from first up to end were moved here from
+    // other; hands their handles over to this list
+    private void takeHandles(DoublyLinkedList<T> other, Node<T> first, Node<T> end) {
+        if (other.handles == 0) {
+            return;
+        }
+        for (Node<T> node = first; node != end && other.handles > 0; node = node.next) {
+            if (node instanceof HandleNode) {
+                ((HandleNode<T>) node).owner = this;
+                other.handles--;
+                handles++;
+            }
+        }
+    }
+
+    // Marks every handle of this list as removed
+    private void releaseHandles() {
+        for (Node<T> node = nil.next; node != nil; node = node.next) {
+            if (node instanceof HandleNode) {
+                ((HandleNode<T>) node).owner = null;
+            }
+        }
+        handles = 0;
+    }
+
+    private void setData(Node<T> node, T value) {
+        if (hashIndex != null) {
+            hashIndex.remove(node);
+            node.data = value;
+            hashIndex.add(node);
+        } else {
+            node.data = value;
+        }
+    }
+
+    // Operation counts of the current window
+    private final class AdaptivePolicy {
+        long walkSteps;
+        int lookups;
+        int updates;
+
+        AdaptivePolicy() {
+        }
+
+        AdaptivePolicy(AdaptivePolicy source) {
+            walkSteps = source.walkSteps;
+            lookups = source.lookups;
+            updates = source.updates;
+        }
+
+        // Switches only when the other mode would have cost less than half
+        // as much over the window, including the cost of the switch
+        void decide() {
+            int levels = 64 - Long.numberOfLeadingZeros(size);
+            long indexedCost = (long) lookups * INDEXED_LOOKUP_COST * levels
+                    + (long) updates * INDEXED_UPDATE_COST;
+            if (index == null && walkSteps > 2 * indexedCost + (long) size * INDEX_BUILD_COST) {
+                setIndexed(true);
+            } else if (index != null && indexedCost > 2 * walkSteps + size) {
+                setIndexed(false);
+            }
+            walkSteps = 0;
+            lookups = 0;
+            updates = 0;
+        }
+    }
+
+    private final class HashIndex {
+        // An element maps to the node holding it, or to an Occurrences<T>
+        // when more than one node holds it
+        private final HashMap<Object, Object> nodes;
+
+        HashIndex() {
+            nodes = new HashMap<Object, Object>();
+        }
+
+        // Shares the map of a list on the same chain until either writes
+        HashIndex(HashIndex source) {
+            nodes = source.nodes;
+        }
+
+        void rebuild() {
+            nodes.clear();
+            addAll(nil.next, nil);
+        }
+
+        void clear() {
+            nodes.clear();
+        }
+
+        boolean contains(Object o) {
+            return nodes.containsKey(o);
+        }
+
+        void add(Node<T> node) {
+            Object held = nodes.putIfAbsent(node.data, node);
+            if (held instanceof Occurrences) {
+                (occurrencesOf(held)).add(node);
+            } else if (held != null) {
+                nodes.put(node.data, new Occurrences<T>(nodeOf(held), node));
+            }
+        }
+
+        void remove(Node<T> node) {
+            Object held = nodes.get(node.data);
+            if (held == node) {
+                nodes.remove(node.data);
+                return;
+            }
+            Occurrences<T> occurrences = occurrencesOf(held);
+            occurrences.remove(node);
+            if (occurrences.count == 1) {
+                nodes.put(node.data, occurrences.nodes[0]);
+            }
+        }
+
+        // Nodes from first up to, not including, end
+        void addAll(Node<T> first, Node<T> end) {
+            for (Node<T> node = first; node != end; node = node.next) {
+                add(node);
+            }
+        }
+
+        void removeAll(Node<T> first, Node<T> end) {
+            for (Node<T> node = first; node != end; node = node.next) {
+                remove(node);
+            }
+        }
+
+        // A value in nodes is either a Node or an Occurrences of this list
+        @SuppressWarnings("unchecked")
+        private Node<T> nodeOf(Object held) {
+            return (Node<T>) held;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Occurrences<T> occurrencesOf(Object held) {
+            return (Occurrences<T>) held;
+        }
+
+        // Every node holding o, in no particular order
+        Node<T>[] nodesOf(Object o) {
+            Object held = nodes.get(o);
+            if (held == null) {
+                return newNodes(0);
+            }
+            if (held instanceof Node) {
+                Node<T>[] single = newNodes(1);
+                single[0] = nodeOf(held);
+                return single;
+            }
+            Occurrences<T> occurrences = occurrencesOf(held);
+            return Arrays.copyOf(occurrences.nodes, occurrences.count);
+        }
+
+        Node<T> first(Object o) {
+            return occurrence(o, true);
+        }
+
+        Node<T> last(Object o) {
+            return occurrence(o, false);
+        }
+
+        // With several occurrences the skip index, when there is one, ranks
+        // them; otherwise the chain is scanned from the requested end.
+        private Node<T> occurrence(Object o, boolean first) {
+            Object held = nodes.get(o);
+            if (held == null || held instanceof Node) {
+                return nodeOf(held);
+            }
+            Occurrences<T> occurrences = occurrencesOf(held);
+            if (index != null) {
+                Node<T> best = null;
+                int bestPosition = 0;
+                for (int i = 0; i < occurrences.count; i++) {
+                    int position = index.positionOf(occurrences.nodes[i]);
+                    if (best == null || (first ? position < bestPosition : position > bestPosition)) {
+                        best = occurrences.nodes[i];
+                        bestPosition = position;
+                    }
+                }
+                return best;
+            }
+            Node<T> node = first ? nil.next : nil.previous;
+            while (!Objects.equals(node.data, o)) {
+                node = first ? node.next : node.previous;
+            }
+            return node;
+        }
+    }
+
+    // The nodes holding one element, in no particular order
+    private static final class Occurrences<T> {
+        private Node<T>[] nodes = newNodes(4);
+        private int count;
+
+        Occurrences(Node<T> first, Node<T> second) {
+            nodes[0] = first;
+            nodes[1] = second;
+            count = 2;
+        }
+
+        void add(Node<T> node) {
+            if (count == nodes.length) {
+                nodes = Arrays.copyOf(nodes, count * 2);
+            }
+            nodes[count++] = node;
+        }
+
+        void remove(Node<T> node) {
+            for (int i = 0; i < count; i++) {
+                if (nodes[i] == node) {
+                    nodes[i] = nodes[--count];
+                    nodes[count] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    private final class SkipIndex {
+        private static final int MAX_LEVEL = 16;
+
+        // Positions are stored as coordinates: index i lives at coordinate
+        // firstCoordinate + i. Adding or removing at either end only moves
+        // firstCoordinate, so nothing else has to be renumbered there.
+        private long firstCoordinate;
+        private final long[] firstAt = new long[MAX_LEVEL];
+        private final long[] lastAt = new long[MAX_LEVEL];
+        private int levels;
+        private int seed = (int) System.nanoTime() | 1;
+
+        // Scratch space filled by locate()
+        private final Node<T>[] update = newNodes(MAX_LEVEL);
+        private final long[] distance = new long[MAX_LEVEL];
+
+        SkipIndex() {
+            nil.tower = new Tower<T>(MAX_LEVEL);
+            reset();
+        }
+
+        // Reads the towers of a chain shared with source's list
+        SkipIndex(SkipIndex source) {
+            firstCoordinate = source.firstCoordinate;
+            System.arraycopy(source.firstAt, 0, firstAt, 0, MAX_LEVEL);
+            System.arraycopy(source.lastAt, 0, lastAt, 0, MAX_LEVEL);
+            levels = source.levels;
+        }
+
+        void reset() {
+            for (int level = 0; level < MAX_LEVEL; level++) {
+                nil.tower.next[level] = nil;
+                nil.tower.previous[level] = nil;
+            }
+            firstCoordinate = 0;
+            levels = 0;
+        }
+
+        // Called before the chain of other is linked after our last node.
+        // Coordinates of other are shifted so its first node follows ours.
+        void append(DoublyLinkedList<T> other) {
+            SkipIndex otherIndex = other.index;
+            long shift = firstCoordinate + size - otherIndex.firstCoordinate;
+            for (int level = 0; level < otherIndex.levels; level++) {
+                Node<T> otherFirst = other.nil.tower.next[level];
+                if (otherFirst == other.nil) {
+                    continue;
+                }
+                Node<T> last = nil.tower.previous[level];
+                if (last == nil) {
+                    nil.tower.next[level] = otherFirst;
+                    firstAt[level] = otherIndex.firstAt[level] + shift;
+                } else {
+                    tower(last).next[level] = otherFirst;
+                    tower(last).width[level] = (int) (otherIndex.firstAt[level] + shift - lastAt[level]);
+                }
+                tower(otherFirst).previous[level] = last;
+                Node<T> otherLast = other.nil.tower.previous[level];
+                tower(otherLast).next[level] = nil;
+                nil.tower.previous[level] = otherLast;
+                lastAt[level] = otherIndex.lastAt[level] + shift;
+            }
+            raiseLevels(otherIndex.levels);
+        }
+
+        // Called before the chain is cut in front of first. Hands the towers
+        // from first onwards to tail, which must be an empty indexed list.
+        void splitInto(Node<T> first, DoublyLinkedList<T> tail) {
+            SkipIndex tailIndex = tail.index;
+            long coordinate = locate(first);
+            tailIndex.firstCoordinate = coordinate;
+            for (int level = 0; level < levels; level++) {
+                Node<T> predecessor = update[level];
+                Node<T> successor = predecessor == nil
+                        ? nil.tower.next[level]
+                        : tower(predecessor).next[level];
+                if (successor == nil) {
+                    continue;
+                }
+                Node<T> last = nil.tower.previous[level];
+                tailIndex.firstAt[level] = predecessor == nil
+                        ? firstAt[level]
+                        : coordinate - distance[level] + tower(predecessor).width[level];
+                tailIndex.lastAt[level] = lastAt[level];
+                tail.nil.tower.next[level] = successor;
+                tower(successor).previous[level] = tail.nil;
+                tail.nil.tower.previous[level] = last;
+                tower(last).next[level] = tail.nil;
+                nil.tower.previous[level] = predecessor;
+                if (predecessor == nil) {
+                    nil.tower.next[level] = nil;
+                } else {
+                    tower(predecessor).next[level] = nil;
+                    lastAt[level] = coordinate - distance[level];
+                }
+            }
+            tailIndex.levels = levels;
+            tailIndex.trimLevels();
+            trimLevels();
+        }
+
+        // Called before the first (or last) count nodes are cut from the
+        // chain in one relink
+        void unlinkEnd(int count, boolean fromFront) {
+            Node<T> node = fromFront ? nil.next : nil.previous;
+            for (int i = 0; i < count; i++) {
+                Node<T> nextNode = fromFront ? node.next : node.previous;
+                if (fromFront) {
+                    unlinkFirst(node);
+                } else {
+                    unlinkLast(node);
+                }
+                ((IndexedNode<T>) node).tower = null;
+                node = nextNode;
+            }
+            trimLevels();
+        }
+
+        void rebuild() {
+            int count = size;
+            Node<T> node = nil.next;
+            size = 0;
+            while (node != nil) {
+                linkLast(node, buildTower(node));
+                size++;
+                node = node.next;
+            }
+            size = count;
+        }
+
+        void discard() {
+            Node<T> node = nil.next;
+            while (node != nil) {
+                ((IndexedNode<T>) node).tower = null;
+                node = node.next;
+            }
+            nil.tower = null;
+        }
+
+        Node<T> nodeAt(int position) {
+            long target = firstCoordinate + position;
+            Node<T> node = nil;
+            long coordinate = 0;
+            for (int level = levels - 1; level >= 0; level--) {
+                if (node == nil) {
+                    Node<T> first = nil.tower.next[level];
+                    if (first == nil || firstAt[level] > target) {
+                        continue;
+                    }
+                    node = first;
+                    coordinate = firstAt[level];
+                }
+                Tower<T> tower = tower(node);
+                while (tower.next[level] != nil && coordinate + tower.width[level] <= target) {
+                    coordinate += tower.width[level];
+                    node = tower.next[level];
+                    tower = tower(node);
+                }
+            }
+            if (node == nil) {
+                node = nil.next;
+                coordinate = firstCoordinate;
+            }
+            while (coordinate < target) {
+                node = node.next;
+                coordinate++;
+            }
+            return node;
+        }
+
+        // Called before newNode is linked in front of successor
+        void link(Node<T> newNode, Node<T> successor) {
+            int height = buildTower(newNode);
+            if (successor == nil) {
+                linkLast(newNode, height);
+            } else if (successor == nil.next) {
+                linkFirst(newNode, height);
+            } else {
+                linkMiddle(newNode, height, successor);
+            }
+        }
+
+        // Called before node is unlinked from the chain
+        void unlink(Node<T> node) {
+            if (node == nil.next) {
+                unlinkFirst(node);
+            } else if (node == nil.previous) {
+                unlinkLast(node);
+            } else {
+                unlinkMiddle(node);
+            }
+            ((IndexedNode<T>) node).tower = null;
+            trimLevels();
+        }
+
+        private void trimLevels() {
+            while (levels > 0 && nil.tower.next[levels - 1] == nil) {
+                levels--;
+            }
+        }
+
+        private void linkFirst(Node<T> node, int height) {
+            long coordinate = --firstCoordinate;
+            raiseLevels(height);
+            for (int level = 0; level < height; level++) {
+                Node<T> successor = nil.tower.next[level];
+                if (successor == nil) {
+                    nil.tower.previous[level] = node;
+                    lastAt[level] = coordinate;
+                } else {
+                    tower(successor).previous[level] = node;
+                    tower(node).width[level] = (int) (firstAt[level] - coordinate);
+                }
+                tower(node).next[level] = successor;
+                tower(node).previous[level] = nil;
+                nil.tower.next[level] = node;
+                firstAt[level] = coordinate;
+            }
+        }
+
+        private void linkLast(Node<T> node, int height) {
+            long coordinate = firstCoordinate + size;
+            raiseLevels(height);
+            for (int level = 0; level < height; level++) {
+                Node<T> predecessor = nil.tower.previous[level];
+                if (predecessor == nil) {
+                    nil.tower.next[level] = node;
+                    firstAt[level] = coordinate;
+                } else {
+                    tower(predecessor).next[level] = node;
+                    tower(predecessor).width[level] = (int) (coordinate - lastAt[level]);
+                }
+                tower(node).previous[level] = predecessor;
+                tower(node).next[level] = nil;
+                nil.tower.previous[level] = node;
+                lastAt[level] = coordinate;
+            }
+        }
+
+        private void linkMiddle(Node<T> node, int height, Node<T> successor) {
+            raiseLevels(height);
+            long coordinate = locate(successor);
+            for (int level = 0; level < levels; level++) {
+                Node<T> predecessor = update[level];
+                Node<T> levelSuccessor = predecessor == nil
+                        ? nil.tower.next[level]
+                        : tower(predecessor).next[level];
+                if (level >= height) {
+                    if (predecessor != nil && levelSuccessor != nil) {
+                        tower(predecessor).width[level]++;
+                    }
+                    if (nil.tower.next[level] != nil) {
+                        if (firstAt[level] >= coordinate) firstAt[level]++;
+                        if (lastAt[level] >= coordinate) lastAt[level]++;
+                    }
+                    continue;
+                }
+                if (predecessor == nil) {
+                    if (levelSuccessor != nil) {
+                        tower(node).width[level] = (int) (firstAt[level] + 1 - coordinate);
+                    }
+                    nil.tower.next[level] = node;
+                    firstAt[level] = coordinate;
+                } else {
+                    if (levelSuccessor != nil) {
+                        tower(node).width[level] = (int) (tower(predecessor).width[level] + 1 - distance[level]);
+                    }
+                    tower(predecessor).next[level] = node;
+                    tower(predecessor).width[level] = (int) distance[level];
+                }
+                if (levelSuccessor == nil) {
+                    nil.tower.previous[level] = node;
+                    lastAt[level] = coordinate;
+                } else {
+                    tower(levelSuccessor).previous[level] = node;
+                    lastAt[level]++;
+                }
+                tower(node).previous[level] = predecessor;
+                tower(node).next[level] = levelSuccessor;
+            }
+        }
+
+        private void unlinkFirst(Node<T> node) {
+            int height = height(node);
+            for (int level = 0; level < height; level++) {
+                Node<T> successor = tower(node).next[level];
+                nil.tower.next[level] = successor;
+                if (successor == nil) {
+                    nil.tower.previous[level] = nil;
+                } else {
+                    tower(successor).previous[level] = nil;
+                    firstAt[level] += tower(node).width[level];
+                }
+            }
+            firstCoordinate++;
+        }
+
+        private void unlinkLast(Node<T> node) {
+            int height = height(node);
+            for (int level = 0; level < height; level++) {
+                Node<T> predecessor = tower(node).previous[level];
+                nil.tower.previous[level] = predecessor;
+                if (predecessor == nil) {
+                    nil.tower.next[level] = nil;
+                } else {
+                    tower(predecessor).next[level] = nil;
+                    lastAt[level] -= tower(predecessor).width[level];
+                }
+            }
+        }
+
+        private void unlinkMiddle(Node<T> node) {
+            int height = height(node);
+            long coordinate = locate(node);
+            for (int level = 0; level < levels; level++) {
+                if (level >= height) {
+                    Node<T> predecessor = update[level];
+                    if (predecessor != nil && tower(predecessor).next[level] != nil) {
+                        tower(predecessor).width[level]--;
+                    }
+                    if (nil.tower.next[level] != nil) {
+                        if (firstAt[level] > coordinate) firstAt[level]--;
+                        if (lastAt[level] > coordinate) lastAt[level]--;
+                    }
+                    continue;
+                }
+                Node<T> predecessor = tower(node).previous[level];
+                Node<T> successor = tower(node).next[level];
+                if (successor == nil) {
+                    nil.tower.previous[level] = predecessor;
+                    if (predecessor != nil) {
+                        lastAt[level] = coordinate - tower(predecessor).width[level];
+                    }
+                } else {
+                    tower(successor).previous[level] = predecessor;
+                    lastAt[level]--;
+                }
+                if (predecessor == nil) {
+                    nil.tower.next[level] = successor;
+                    if (successor != nil) {
+                        firstAt[level] = coordinate + tower(node).width[level] - 1;
+                    }
+                } else {
+                    tower(predecessor).next[level] = successor;
+                    if (successor != nil) {
+                        tower(predecessor).width[level] += tower(node).width[level] - 1;
+                    }
+                }
+            }
+        }
+
+        int positionOf(Node<T> node) {
+            return (int) (locate(node) - firstCoordinate);
+        }
+
+        // Finds the coordinate of node by walking left and climbing towers.
+        // Leaves in update[level] the closest node before it on each level
+        // (nil when there is none) and in distance[level] how far back it is.
+        private long locate(Node<T> node) {
+            int level = height(node) - 1;
+            for (int i = 0; i <= level; i++) {
+                update[i] = tower(node).previous[i];
+                distance[i] = update[i] == nil ? 0 : tower(update[i]).width[i];
+            }
+            long walked = 0;
+            Node<T> current = node;
+            while (true) {
+                Node<T> previous = level < 0 ? current.previous : tower(current).previous[level];
+                if (previous == nil) {
+                    for (int i = level + 1; i < levels; i++) {
+                        update[i] = nil;
+                    }
+                    return (level < 0 ? firstCoordinate : firstAt[level]) + walked;
+                }
+                walked += level < 0 ? 1 : tower(previous).width[level];
+                current = previous;
+                int height = height(current);
+                for (int i = level + 1; i < height; i++) {
+                    update[i] = current;
+                    distance[i] = walked;
+                }
+                if (height - 1 > level) {
+                    level = height - 1;
+                }
+            }
+        }
+
+        private int buildTower(Node<T> node) {
+            int height = randomHeight();
+            ((IndexedNode<T>) node).tower = height > 0 ? new Tower<T>(height) : null;
+            return height;
+        }
+
+        private void raiseLevels(int height) {
+            if (height > levels) {
+                levels = height;
+            }
+        }
+
+        private int height(Node<T> node) {
+            Tower<T> tower = tower(node);
+            return tower == null ? 0 : tower.next.length;
+        }
+
+        private Tower<T> tower(Node<T> node) {
+            return ((IndexedNode<T>) node).tower;
+        }
+
+        // Each level holds about a quarter of the nodes of the level below
+        private int randomHeight() {
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            int bits = seed;
+            int height = 0;
+            while ((bits & 3) == 0 && height < MAX_LEVEL) {
+                height++;
+                bits >>>= 2;
+            }
+            return height;
+        }
+    }
+
+    private final class LinkedListIterator implements ListIterator<T> {
+        private Node<T> next;
+        private Node<T> previous;
+        private Node<T> lastReturned;
+        private int position;
+
+        LinkedListIterator(int index) {
+            next = index == size ? nil : getNodeAt(index);
+            previous = next.previous;
+            position = index;
+        }
+
+        public int nextIndex() {
+            return position;
+        }
+
+        public int previousIndex() {
+            return position - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new NoSuchElementException("No element to remove");
+            }
+            relocate();
+            if (lastReturned == next) {
+                next = lastReturned.next;
+            } else {
+                previous = lastReturned.previous;
+                position--;
+            }
+            removeNode(lastReturned);
+            rememberNode(next, position);
+            lastReturned = null;
+        }
+
+        @Override
+        public void set(T value) {
+            if (lastReturned == null) {
+                throw new NoSuchElementException("No element to set");
+            }
+            relocate();
+            setData(lastReturned, value);
+        }
+
+        @Override
+        public void add(T value) {
+            relocate();
+            position++;
+            Node<T> newNode = newNode(value);
+            linkBefore(newNode, next);
+            rememberNode(newNode, position - 1);
+            previous = newNode;
+            lastReturned = null;
+        }
+
+        // Finds the cursor again if unshare() copied the chain under it
+        private void relocate() {
+            boolean lastWasPrevious = lastReturned != null && lastReturned == next;
+            if (!unshare()) {
+                return;
+            }
+            next = position == size ? nil : getNodeAt(position);
+            previous = next.previous;
+            if (lastReturned != null) {
+                lastReturned = lastWasPrevious ? next : previous;
+            }
+        }
+
+        public boolean hasNext() {
+            return (next != nil);
+        }
+
+        @Override
+        public T next() {
+            if (next == nil) {
+                throw new NoSuchElementException("No next element exists.");
+            }
+            position++;
+            lastReturned = previous = next;
+            next = lastReturned.next;
+            return lastReturned.data;
+        }
+
+        public boolean hasPrevious() {
+            return (previous != nil);
+        }
+
+        @Override
+        public T previous() {
+            if (previous == nil) {
+                throw new NoSuchElementException("No previous element exists.");
+            }
+            position--;
+            lastReturned = next = previous;
+            previous = lastReturned.previous;
+            return lastReturned.data;
+        }
+    }
+
+    // Sorts count nodes from head, a null terminated chain, by cutting it
+    // in half until the pieces are no longer than segment
+    private static final class SortTask<T> extends RecursiveTask<Node<T>> {
+        private final Node<T> head;
+        private final int count;
+        private final int segment;
+        private final Comparator<? super T> order;
+
+        SortTask(Node<T> head, int count, int segment, Comparator<? super T> order) {
+            this.head = head;
+            this.count = count;
+            this.segment = segment;
+            this.order = order;
+        }
+
+        @Override
+        protected Node<T> compute() {
+            if (count <= segment) {
+                return sortChain(head, order);
+            }
+            int half = count / 2;
+            Node<T> last = head;
+            for (int i = 1; i < half; i++) {
+                last = last.next;
+            }
+            Node<T> rest = last.next;
+            last.next = null;
+            SortTask<T> left = new SortTask<T>(head, half, segment, order);
+            left.fork();
+            Node<T> right;
+            try {
+                right = new SortTask<T>(rest, count - half, segment, order).compute();
+            } catch (RuntimeException | Error e) {
+                // The caller restores the chain, which must wait for left
+                left.quietlyJoin();
+                throw e;
+            }
+            return mergeChains(left.join(), right, order);
+        }
+    }
+
+    // Covers positions [position, fence) starting at current. The range is
+    // bound to the list on first use. Unindexed lists find the split point
+    // by walking the first half, and remember the midpoint of that half so
+    // the prefix can split again without walking.
+    private final class NodeSpliterator implements Spliterator<T> {
+        private Node<T> current;
+        private int position;
+        private int fence;
+        private Node<T> midpoint;
+
+        NodeSpliterator(Node<T> current, int position, int fence, Node<T> midpoint) {
+            this.current = current;
+            this.position = position;
+            this.fence = fence;
+            this.midpoint = midpoint;
+        }
+
+        private void bind() {
+            if (fence < 0) {
+                current = nil.next;
+                position = 0;
+                fence = size;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            bind();
+            int remaining = fence - position;
+            if (remaining < 2) {
+                return null;
+            }
+            int middle = position + (remaining >>> 1);
+            Node<T> middleNode = midpoint;
+            Node<T> prefixMidpoint = null;
+            if (middleNode == null && index != null) {
+                middleNode = index.nodeAt(middle);
+            } else if (middleNode == null) {
+                int prefixMiddle = position + ((middle - position) >>> 1);
+                middleNode = current;
+                for (int i = position; i < middle; i++) {
+                    if (i == prefixMiddle) {
+                        prefixMidpoint = middleNode;
+                    }
+                    middleNode = middleNode.next;
+                }
+            }
+            NodeSpliterator prefix = new NodeSpliterator(current, position, middle, prefixMidpoint);
+            current = middleNode;
+            position = middle;
+            midpoint = null;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            bind();
+            if (position >= fence) {
+                return false;
+            }
+            T data = current.data;
+            current = current.next;
+            position++;
+            midpoint = null;
+            action.accept(data);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            bind();
+            Node<T> node = current;
+            for (int i = position; i < fence; i++) {
+                action.accept(node.data);
+                node = node.next;
+            }
+            current = node;
+            position = fence;
+            midpoint = null;
+        }
+
+        @Override
+        public long estimateSize() {
+            bind();
+            return fence - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
         }
     }
 }
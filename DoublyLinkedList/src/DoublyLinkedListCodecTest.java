@@ -0,0 +1,56 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.channels.Channels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoublyLinkedListCodecTest {
+
+    @Test
+    void testWriteAndRead_roundTripThroughStream_restoresElementsInOrder() throws IOException {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(i * 3);
+        }
+        DoublyLinkedListCodec<Integer> codec = new DoublyLinkedListCodec<Integer>(DoublyLinkedListCodec.INTEGERS);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.write(list, bytes);
+        assertEquals(8 + 4 * 10000, bytes.size());
+
+        DoublyLinkedList<Integer> loaded = codec.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(list, loaded);
+        assertEquals(29997, loaded.getLast());
+        assertEquals(15, loaded.get(5));
+        loaded.addFirst(-1);
+        assertEquals(10001, loaded.size());
+    }
+
+    @Test
+    void testWriteAndRead_roundTripThroughChannel_keepsNullStrings() throws IOException {
+        DoublyLinkedList<String> list = new DoublyLinkedList<String>();
+        list.add("first");
+        list.add(null);
+        list.add("\u00e9t\u00e9");
+        DoublyLinkedListCodec<String> codec = new DoublyLinkedListCodec<String>(DoublyLinkedListCodec.STRINGS);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.write(list, Channels.newChannel(bytes));
+
+        DoublyLinkedList<String> loaded = codec.read(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(3, loaded.size());
+        assertEquals("first", loaded.getFirst());
+        assertNull(loaded.get(1));
+        assertEquals("\u00e9t\u00e9", loaded.getLast());
+    }
+
+    @Test
+    void testRead_readingForeignBytes_throwsStreamCorruptedException() {
+        DoublyLinkedListCodec<Long> codec = new DoublyLinkedListCodec<Long>(DoublyLinkedListCodec.LONGS);
+        assertThrows(StreamCorruptedException.class , () -> {
+            codec.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+        });
+    }
+}
@@ -1,8 +1,18 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,6 +67,81 @@ class DoublyLinkedListTest {
         assertEquals( multipleElementList.toString(), clone.toString());
     }
 
+    @Test
+    void testClone_modifyingCloneOrOriginal_leavesTheOtherUnchanged() {
+        DoublyLinkedList<Integer> clone = (DoublyLinkedList<Integer>) multipleElementList.clone();
+        assertTrue(clone.isShared());
+        clone.removeFirst();
+        clone.add(9);
+        assertFalse(clone.isShared());
+        assertFalse(multipleElementList.isShared());
+        multipleElementList.set(0, 8);
+        assertEquals("8 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString());
+        assertEquals("3 ==> 5 ==> 7 ==> 1 ==> 6 ==> 9", clone.toString());
+        assertEquals(6, clone.size());
+    }
+
+    @Test
+    void testSnapshot_mutatingOriginalDuringIteration_snapshotStaysConsistent() {
+        List<Integer> snapshot = multipleElementList.snapshot();
+        Iterator<Integer> reader = snapshot.iterator();
+        assertEquals(4, reader.next());
+        ListIterator<Integer> writer = multipleElementList.listIterator(1);
+        writer.next();
+        writer.remove();
+        writer.add(2);
+        multipleElementList.clear();
+        ArrayList<Integer> rest = new ArrayList<Integer>();
+        reader.forEachRemaining(rest::add);
+        assertEquals("[3, 5, 7, 1, 6]", rest.toString());
+        assertEquals(6, snapshot.size());
+        assertThrows(UnsupportedOperationException.class , () -> {
+            snapshot.add(1);
+        });
+    }
+
+    @Test
+    void testClone_ofIndexedList_sharesIndexUntilWritten() {
+        multipleElementList.setIndexed(true);
+        DoublyLinkedList<Integer> clone = (DoublyLinkedList<Integer>) multipleElementList.clone();
+        assertTrue(clone.isIndexed());
+        assertEquals(1, clone.get(4));
+        clone.add(2, 0);
+        multipleElementList.remove(0);
+        for (int i = 0; i < clone.size(); i++) {
+            assertEquals(new int[] {4, 3, 0, 5, 7, 1, 6}[i], clone.get(i));
+        }
+        assertEquals(5, multipleElementList.get(1));
+    }
+
+    @Test
+    void testClone_ofAdaptiveList_keepsAdaptiveModeAndWindow() {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        list.setAdaptive(true);
+        for (int i = 0; i < 10000; i++) {
+            list.addLast(i);
+        }
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            list.get(random.nextInt(10000));
+        }
+        assertFalse(list.isIndexed());
+
+        // Only finishing the window the original started switches this soon
+        DoublyLinkedList<Integer> clone = (DoublyLinkedList<Integer>) list.clone();
+        assertTrue(clone.isAdaptive());
+        clone.set(0, 0);
+        for (int i = 0; i < 300; i++) {
+            assertEquals(5000 + i, clone.get(5000 + i));
+        }
+        assertTrue(clone.isIndexed());
+        assertFalse(list.isIndexed());
+
+        list.addFirstHandle(-1);
+        DoublyLinkedList<Integer> withHandles = (DoublyLinkedList<Integer>) list.clone();
+        assertTrue(withHandles.isAdaptive());
+    }
+
     @Test
     void testSize_addingElements_returnsCorrectListSize() {
         emptyList.add(5);
@@ -389,4 +474,663 @@ class DoublyLinkedListTest {
         assertEquals(6, multipleElementList.size());
         assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString() );
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSetIndexed_indexingList_keepsElementsAndPositionalAccess() {
+        multipleElementList.setIndexed(true);
+        assertTrue(multipleElementList.isIndexed());
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString());
+        assertEquals(5, multipleElementList.get(2));
+        multipleElementList.setIndexed(false);
+        assertFalse(multipleElementList.isIndexed());
+        assertEquals(6, multipleElementList.get(5));
+    }
+
+    @Test
+    void testSetIndexed_listWithHandlesHashIndexAndPooledNodes_keepsEveryLookupWorking() {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        list.setNodeRecycling(8);
+        list.setHashIndexed(true);
+        for (int i = 0; i < 100; i++) {
+            list.addLast(i);
+        }
+        for (int i = 0; i < 8; i++) {
+            list.addFirst(list.removeLast());
+        }
+        NodeRef<Integer> handle = list.addLastHandle(100);
+        list.setIndexed(true);
+        list.addFirst(-1);
+        assertEquals(92, list.get(1));
+        assertEquals(11, list.indexOf(2));
+        assertEquals(100, list.removeHandle(handle));
+        assertFalse(handle.isLinked());
+        for (int i = 1; i < list.size(); i++) {
+            assertEquals((i + 91) % 100, list.get(i));
+        }
+        assertEquals(101, list.size());
+    }
+
+    @Test
+    void testAddFirst_onPlainList_allocatesNoSkipTowerField() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        list.addFirst(0);
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            list.addFirst(1);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        // A node holds data, next and previous: 24 bytes with compressed oops
+        assertTrue(allocated < 28 * 1000, "allocated " + allocated + " bytes");
+        assertEquals(1001, list.size());
+    }
+
+    @Test
+    void testSetIndexed_mixingPositionalAndDequeOperations_matchesArrayList() {
+        DoublyLinkedList<Integer> indexedList = new DoublyLinkedList<Integer>();
+        indexedList.setIndexed(true);
+        ArrayList<Integer> expected = new ArrayList<Integer>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 5000; i++) {
+            int position = random.nextInt(expected.size() + 1);
+            switch (random.nextInt(5)) {
+                case 0:
+                    indexedList.addFirst(i);
+                    expected.add(0, i);
+                    break;
+                case 1:
+                    indexedList.addLast(i);
+                    expected.add(i);
+                    break;
+                case 2:
+                    indexedList.add(position, i);
+                    expected.add(position, i);
+                    break;
+                case 3:
+                    if (position < expected.size()) {
+                        assertEquals(expected.remove(position), indexedList.remove(position));
+                    }
+                    break;
+                default:
+                    if (!expected.isEmpty()) {
+                        assertEquals(expected.remove(0), indexedList.removeFirst());
+                    }
+            }
+        }
+        assertEquals(expected.size(), indexedList.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), indexedList.get(i));
+        }
+    }
+
+    @Test
+    void testAdd_addingElementAtSizeIndex_appendsElementToTheEndOfTheList() {
+        multipleElementList.add(6, 9);
+        emptyList.add(0, 2);
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6 ==> 9", multipleElementList.toString());
+        assertEquals("2", emptyList.toString());
+    }
+
+    @Test
+    void testListIteratorRemove_removingElements_updatesSizeOnce() {
+        ListIterator<Integer> iterator = multipleElementList.listIterator(0);
+        iterator.next();
+        iterator.remove();
+        iterator.next();
+        iterator.previous();
+        iterator.remove();
+        assertEquals(4, multipleElementList.size());
+        assertEquals(0, iterator.nextIndex());
+        assertEquals("5 ==> 7 ==> 1 ==> 6", multipleElementList.toString());
+    }
+
+    @Test
+    void testGet_sequentialAccessAcrossMutations_returnsCorrectElements() {
+        assertEquals(7, multipleElementList.get(3));
+        multipleElementList.addFirst(9);
+        assertEquals(7, multipleElementList.get(4));
+        multipleElementList.remove(2);
+        assertEquals(7, multipleElementList.get(3));
+        multipleElementList.add(3, 8);
+        assertEquals(8, multipleElementList.get(3));
+        assertEquals(7, multipleElementList.get(4));
+        multipleElementList.removeFirst();
+        multipleElementList.remove((Integer) 7);
+        for (int i = 0; i < multipleElementList.size(); i++) {
+            assertEquals(new int[] {4, 5, 8, 1, 6}[i], multipleElementList.get(i));
+        }
+    }
+
+    @Test
+    void testSetNodeRecycling_reusingRemovedNodes_keepsListContentsCorrect() {
+        multipleElementList.setNodeRecycling(2);
+        assertEquals(2, multipleElementList.getNodeRecycling());
+        multipleElementList.removeFirst();
+        multipleElementList.removeLast();
+        multipleElementList.remove(1);
+        multipleElementList.addLast(8);
+        multipleElementList.addFirst(9);
+        multipleElementList.add(2, 0);
+        assertEquals("9 ==> 3 ==> 0 ==> 7 ==> 1 ==> 8", multipleElementList.toString());
+        multipleElementList.clear();
+        multipleElementList.add(2);
+        assertEquals("2", multipleElementList.toString());
+    }
+
+    @Test
+    void testAdd_invalidIndexWithPooledNodes_keepsPoolForLaterInserts() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        list.setNodeRecycling(1000);
+        for (int i = 0; i < 1000; i++) {
+            list.add(1);
+        }
+        list.clear();
+        for (int i = 0; i < 1000; i++) {
+            assertThrows(IndexOutOfBoundsException.class , () -> {
+                list.add(5, 1);
+            });
+        }
+        Integer value = 1;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            list.addLast(value);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+        assertEquals(1000, list.size());
+    }
+
+    @Test
+    void testRemoveFirst_queueUseAfterIndexedGet_allocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        list.setNodeRecycling(16);
+        for (int i = 0; i < 100; i++) {
+            list.addLast(i);
+        }
+        assertEquals(50, list.get(50));
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            list.addLast(list.removeFirst());
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+        assertEquals(0, list.get(0));
+        assertEquals(50, list.get(50));
+    }
+
+    @Test
+    void testGet_shortHopsAndReadsNearEnds_allocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            list.addLast(i);
+        }
+        assertEquals(500, list.get(500));
+        long before = threads.getCurrentThreadAllocatedBytes();
+        int sum = 0;
+        for (int i = 0; i < 1000; i++) {
+            sum += list.get(500 + (i & 7));
+            sum += list.get(i & 3);
+            sum += list.get(999 - (i & 3));
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+        assertEquals(1502500, sum);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, list.get(i));
+        }
+    }
+
+    @Test
+    void testSetNodeRecycling_negativePoolSize_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class , () -> {
+            emptyList.setNodeRecycling(-1);
+        });
+    }
+
+    @Test
+    void testSplice_splicingListAtIndex_movesAllElementsAndEmptiesOtherList() {
+        DoublyLinkedList<Integer> other = new DoublyLinkedList<Integer>();
+        other.add(8);
+        other.add(9);
+        multipleElementList.splice(2, other);
+        assertEquals("4 ==> 3 ==> 8 ==> 9 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString());
+        assertEquals(8, multipleElementList.size());
+        assertEquals(0, other.size());
+        assertEquals("", other.toString());
+        assertThrows(IllegalArgumentException.class , () -> {
+            multipleElementList.splice(0, multipleElementList);
+        });
+    }
+
+    @Test
+    void testTransferTo_transferringToAnotherList_appendsElementsToTarget() {
+        multipleElementList.transferTo(singleElementList);
+        assertEquals("8 ==> 4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", singleElementList.toString());
+        assertEquals(7, singleElementList.size());
+        assertTrue(multipleElementList.isEmpty());
+        multipleElementList.add(2);
+        assertEquals("2", multipleElementList.toString());
+    }
+
+    @Test
+    void testSplitAt_splittingList_returnsTailAndKeepsHead() {
+        DoublyLinkedList<Integer> tail = multipleElementList.splitAt(4);
+        assertEquals("4 ==> 3 ==> 5 ==> 7", multipleElementList.toString());
+        assertEquals("1 ==> 6", tail.toString());
+        assertEquals(4, multipleElementList.size());
+        assertEquals(2, tail.size());
+        assertEquals(6, tail.getLast());
+        assertEquals(7, multipleElementList.getLast());
+    }
+
+    @Test
+    void testSplitAtAndSplice_onIndexedLists_keepPositionalAccessCorrect() {
+        multipleElementList.setIndexed(true);
+        DoublyLinkedList<Integer> tail = multipleElementList.splitAt(2);
+        assertTrue(tail.isIndexed());
+        assertEquals(7, tail.get(1));
+        tail.splice(1, multipleElementList);
+        assertEquals("5 ==> 4 ==> 3 ==> 7 ==> 1 ==> 6", tail.toString());
+        for (int i = 0; i < tail.size(); i++) {
+            assertEquals(new int[] {5, 4, 3, 7, 1, 6}[i], tail.get(i));
+        }
+    }
+
+    @Test
+    void testGet_concurrentReadersOfUnchangedList_returnCorrectElements() throws InterruptedException {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(i);
+        }
+        AtomicInteger wrongReads = new AtomicInteger();
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            int seed = t;
+            readers[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                int index = 0;
+                for (int i = 0; i < 200000; i++) {
+                    // Mostly short hops, so the finger is used
+                    index = Math.floorMod(index + random.nextInt(64) - 32, 10000);
+                    if (list.get(index) != index) {
+                        wrongReads.incrementAndGet();
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(0, wrongReads.get());
+    }
+
+    @Test
+    void testPollFirstAndPollLast_batchOfElements_detachesThemInOrder() {
+        DoublyLinkedList<Integer> head = multipleElementList.pollFirst(2);
+        DoublyLinkedList<Integer> tail = multipleElementList.pollLast(3);
+        assertEquals("4 ==> 3", head.toString());
+        assertEquals("5 ==> 7 ==> 1 ==> 6", multipleElementList.toString() + " ==> " + tail.toString());
+        assertEquals(1, multipleElementList.size());
+        assertEquals(3, tail.size());
+        assertEquals(6, tail.getLast());
+        assertEquals("5", multipleElementList.pollFirst(8).toString());
+        assertTrue(multipleElementList.isEmpty());
+        assertTrue(emptyList.pollLast(0).isEmpty());
+        assertThrows(IllegalArgumentException.class , () -> {
+            singleElementList.pollFirst(-1);
+        });
+    }
+
+    @Test
+    void testPollFirstAndPollLast_onIndexedLists_keepBothListsIndexed() {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 5000; i++) {
+            list.add(i % 700);
+            expected.add(i % 700);
+        }
+        list.setIndexed(true);
+        list.setHashIndexed(true);
+        NodeRef<Integer> handle = list.addLastHandle(9999);
+        expected.add(9999);
+        list.get(2500);
+
+        DoublyLinkedList<Integer> head = list.pollFirst(1234);
+        DoublyLinkedList<Integer> tail = list.pollLast(1000);
+        assertTrue(head.isIndexed() && tail.isHashIndexed());
+        assertEquals(expected.subList(0, 1234), head);
+        assertEquals(expected.subList(expected.size() - 1000, expected.size()), tail);
+        List<Integer> kept = expected.subList(1234, expected.size() - 1000);
+        assertEquals(kept, list);
+        for (int i = 0; i < kept.size(); i += 97) {
+            assertEquals(kept.get(i), list.get(i));
+            assertEquals(kept.indexOf(kept.get(i)), list.indexOf(kept.get(i)));
+        }
+        assertEquals(999, tail.indexOf(9999));
+        assertEquals(9999, tail.removeHandle(handle));
+    }
+
+    @Test
+    void testDrainTo_limitedAmount_movesElementsFromTheFront() {
+        List<Integer> drained = new ArrayList<Integer>();
+        assertEquals(4, multipleElementList.drainTo(drained, 4));
+        assertEquals(List.of(4, 3, 5, 7), drained);
+        assertEquals("1 ==> 6", multipleElementList.toString());
+        assertEquals(0, multipleElementList.drainTo(drained, 0));
+        assertEquals(2, multipleElementList.drainTo(drained));
+        assertTrue(multipleElementList.isEmpty());
+        assertEquals(List.of(4, 3, 5, 7, 1, 6), drained);
+        assertThrows(IllegalArgumentException.class , () -> {
+            singleElementList.drainTo(singleElementList, 1);
+        });
+    }
+
+    @Test
+    void testDrainTo_collectionRejectsElement_removesOnlyAcceptedElements() {
+        List<Integer> bounded = new ArrayList<Integer>() {
+            @Override
+            public boolean add(Integer value) {
+                if (size() == 3) {
+                    throw new IllegalStateException("Full");
+                }
+                return super.add(value);
+            }
+        };
+        assertThrows(IllegalStateException.class , () -> {
+            multipleElementList.drainTo(bounded, 10);
+        });
+        assertEquals(List.of(4, 3, 5), bounded);
+        assertEquals("7 ==> 1 ==> 6", multipleElementList.toString());
+        assertEquals(1, multipleElementList.get(1));
+    }
+
+    @Test
+    void testSpliterator_splittingList_coversDisjointRangesInOrder() {
+        Spliterator<Integer> suffix = multipleElementList.spliterator();
+        assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        Spliterator<Integer> prefix = suffix.trySplit();
+        assertEquals(3, prefix.estimateSize());
+        assertEquals(3, suffix.estimateSize());
+        Spliterator<Integer> firstQuarter = prefix.trySplit();
+        ArrayList<Integer> seen = new ArrayList<Integer>();
+        firstQuarter.forEachRemaining(seen::add);
+        assertTrue(prefix.tryAdvance(seen::add));
+        prefix.forEachRemaining(seen::add);
+        suffix.forEachRemaining(seen::add);
+        assertEquals(new ArrayList<Integer>(multipleElementList), seen);
+        assertNull(emptyList.spliterator().trySplit());
+    }
+
+    @Test
+    void testParallelStream_onPlainAndIndexedLists_matchesSequentialResult() {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(i);
+        }
+        assertEquals(49995000L, list.parallelStream().mapToLong(Integer::longValue).sum());
+        list.setIndexed(true);
+        assertEquals(new ArrayList<Integer>(list), list.parallelStream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void testSerialization_largeIndexedList_restoresElementsAndMode() throws IOException, ClassNotFoundException {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        for (int i = 0; i < 200000; i++) {
+            list.add(i);
+        }
+        list.setIndexed(true);
+        list.setNodeRecycling(16);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(list);
+        }
+        DoublyLinkedList<Integer> copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (DoublyLinkedList<Integer>) in.readObject();
+        }
+        assertEquals(list, copy);
+        assertTrue(copy.isIndexed());
+        assertEquals(16, copy.getNodeRecycling());
+        assertEquals(123456, copy.get(123456));
+        copy.add(7, -7);
+        assertEquals(-7, copy.get(7));
+    }
+
+    @Test
+    void testSearch_listHoldingNulls_doesNotThrow() {
+        multipleElementList.add(2, null);
+        assertTrue(multipleElementList.contains(null));
+        assertEquals(2, multipleElementList.indexOf(null));
+        assertEquals(-1, multipleElementList.indexOf(9));
+        assertTrue(multipleElementList.removeLastOccurrence(null));
+        assertFalse(multipleElementList.remove(null));
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString());
+    }
+
+    @Test
+    void testHashIndexed_removingByValue_findsFirstAndLastOccurrences() {
+        multipleElementList.setHashIndexed(true);
+        multipleElementList.add(1, 5);
+        multipleElementList.addLast(4);
+        assertTrue(multipleElementList.contains(7));
+        assertFalse(multipleElementList.contains(9));
+        assertEquals(1, multipleElementList.indexOf(5));
+        assertEquals(7, multipleElementList.lastIndexOf(4));
+        assertTrue(multipleElementList.removeFirstOccurrence(5));
+        assertTrue(multipleElementList.removeLastOccurrence(4));
+        assertTrue(multipleElementList.remove((Integer) 4));
+        assertFalse(multipleElementList.contains(4));
+        ListIterator<Integer> iterator = multipleElementList.listIterator();
+        iterator.next();
+        iterator.set(8);
+        assertTrue(multipleElementList.contains(8));
+        assertFalse(multipleElementList.contains(3));
+        assertEquals("8 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString());
+    }
+
+    @Test
+    void testHandles_movingAndRemovingByHandle_updatesListInPlace() {
+        NodeRef<Integer> first = emptyList.addLastHandle(1);
+        NodeRef<Integer> second = emptyList.addLastHandle(2);
+        NodeRef<Integer> front = emptyList.addFirstHandle(0);
+        NodeRef<Integer> middle = emptyList.insertAfter(first, 9);
+        assertEquals("0 ==> 1 ==> 9 ==> 2", emptyList.toString());
+        emptyList.moveToBack(front);
+        emptyList.moveToFront(second);
+        assertEquals(9, emptyList.set(middle, 8));
+        assertEquals("2 ==> 1 ==> 8 ==> 0", emptyList.toString());
+        assertEquals(1, emptyList.removeHandle(first));
+        assertFalse(first.isLinked());
+        assertEquals("2 ==> 8 ==> 0", emptyList.toString());
+        assertEquals(8, emptyList.get(1));
+        assertThrows(IllegalArgumentException.class , () -> {
+            emptyList.removeHandle(first);
+        });
+    }
+
+    @Test
+    void testHandles_afterSpliceOrClear_followTheirElements() {
+        NodeRef<Integer> handle = singleElementList.addLastHandle(3);
+        singleElementList.transferTo(multipleElementList);
+        assertThrows(IllegalArgumentException.class , () -> {
+            singleElementList.moveToFront(handle);
+        });
+        multipleElementList.moveToFront(handle);
+        assertEquals("3 ==> 4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6 ==> 8", multipleElementList.toString());
+        DoublyLinkedList<Integer> clone = (DoublyLinkedList<Integer>) multipleElementList.clone();
+        clone.removeFirst();
+        assertTrue(handle.isLinked());
+        multipleElementList.clear();
+        assertFalse(handle.isLinked());
+        assertEquals(3, handle.get());
+    }
+
+    @Test
+    void testRemoveIf_removingRunsOfElements_relinksRemainingElements() {
+        multipleElementList.addLast(2);
+        List<Integer> tested = new ArrayList<Integer>();
+        assertTrue(multipleElementList.removeIf(value -> tested.add(value) && value > 2 && value != 6));
+        assertEquals(List.of(4, 3, 5, 7, 1, 6, 2), tested);
+        assertEquals("1 ==> 6 ==> 2", multipleElementList.toString());
+        assertEquals(3, multipleElementList.size());
+        assertEquals(2, multipleElementList.getLast());
+        assertFalse(multipleElementList.removeIf(value -> value > 10));
+        assertTrue(multipleElementList.removeIf(value -> true));
+        assertTrue(multipleElementList.isEmpty());
+    }
+
+    @Test
+    void testRemoveAllAndRetainAll_onIndexedAndHashIndexedLists_matchArrayList() {
+        Random random = new Random(17);
+        List<Integer> values = new ArrayList<Integer>();
+        List<Integer> argument = new ArrayList<Integer>();
+        for (int i = 0; i < 2000; i++) {
+            values.add(random.nextInt(100));
+        }
+        for (int i = 0; i < 40; i++) {
+            argument.add(random.nextInt(100));
+        }
+        for (int mode = 0; mode < 4; mode++) {
+            DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>(values);
+            list.setIndexed(mode % 2 == 1);
+            list.setHashIndexed(mode >= 2);
+            List<Integer> expected = new ArrayList<Integer>(values);
+            assertEquals(expected.removeAll(argument.subList(0, 3)), list.removeAll(argument.subList(0, 3)));
+            assertEquals(expected.retainAll(argument), list.retainAll(argument));
+            assertEquals(expected, list);
+            assertEquals(expected.size(), list.size());
+            assertEquals(expected.get(expected.size() / 2), list.get(expected.size() / 2));
+            assertEquals(expected.indexOf(argument.get(5)), list.indexOf(argument.get(5)));
+        }
+    }
+
+    @Test
+    void testReplaceAll_onClonedList_leavesCloneUnchanged() {
+        DoublyLinkedList<Integer> clone = (DoublyLinkedList<Integer>) multipleElementList.clone();
+        multipleElementList.replaceAll(value -> value * 10);
+        assertEquals("40 ==> 30 ==> 50 ==> 70 ==> 10 ==> 60", multipleElementList.toString());
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", clone.toString());
+    }
+
+    @Test
+    void testSort_sortingList_relinksNodesInOrder() {
+        multipleElementList.sort(null);
+        assertEquals("1 ==> 3 ==> 4 ==> 5 ==> 6 ==> 7", multipleElementList.toString());
+        assertEquals(7, multipleElementList.getLast());
+        multipleElementList.sort(Comparator.reverseOrder());
+        assertEquals("7 ==> 6 ==> 5 ==> 4 ==> 3 ==> 1", multipleElementList.toString());
+        assertEquals(1, multipleElementList.descendingIterator().next());
+    }
+
+    @Test
+    void testSort_equalKeys_keepsOriginalOrder() {
+        DoublyLinkedList<String> words = new DoublyLinkedList<String>(List.of("pear", "fig", "plum", "kiwi", "date", "lime"));
+        words.setIndexed(true);
+        words.sort(Comparator.comparing(String::length));
+        assertEquals("fig ==> pear ==> plum ==> kiwi ==> date ==> lime", words.toString());
+        assertEquals("kiwi", words.get(3));
+    }
+
+    @Test
+    void testSort_comparatorThrows_leavesListUnchanged() {
+        assertThrows(IllegalStateException.class , () -> {
+            multipleElementList.sort((a, b) -> {
+                if (a == 1 || b == 1) {
+                    throw new IllegalStateException();
+                }
+                return a - b;
+            });
+        });
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString());
+        assertEquals(6, multipleElementList.getLast());
+    }
+
+    @Test
+    void testParallelSort_largeList_matchesArrayListSort() {
+        Random random = new Random(7);
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 200000; i++) {
+            expected.add(random.nextInt(1000));
+        }
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>(expected);
+        list.setIndexed(true);
+        list.parallelSort(Comparator.reverseOrder());
+        expected.sort(Comparator.reverseOrder());
+        assertEquals(expected, list);
+        assertEquals(expected.get(123456), list.get(123456));
+    }
+
+    @Test
+    void testInsertSortedAndMerge_sortedLists_stayOrdered() {
+        multipleElementList.sort(null);
+        assertEquals(3, multipleElementList.insertSorted(4, null));
+        assertEquals(0, multipleElementList.insertSorted(0, null));
+        assertEquals(8, multipleElementList.insertSorted(9, null));
+        DoublyLinkedList<Integer> other = new DoublyLinkedList<Integer>(List.of(2, 4, 8));
+        multipleElementList.merge(other);
+        assertEquals("0 ==> 1 ==> 2 ==> 3 ==> 4 ==> 4 ==> 4 ==> 5 ==> 6 ==> 7 ==> 8 ==> 9", multipleElementList.toString());
+        assertEquals(12, multipleElementList.size());
+        assertTrue(other.isEmpty());
+    }
+
+    @Test
+    void testToString_withElementLimit_summarizesTheRest() {
+        assertEquals("4 ==> 3 ==> ... 4 more", multipleElementList.toString(2));
+        assertEquals("... 6 more", multipleElementList.toString(0));
+        assertEquals(multipleElementList.toString(), multipleElementList.toString(6));
+        multipleElementList.add(1, null);
+        assertEquals("4 ==> null ==> 3 ==> ... 4 more", multipleElementList.toString(3));
+    }
+
+    @Test
+    void testAppendTo_customSeparatorAndFormatter_appendsFormattedElements() throws IOException {
+        StringBuilder output = new StringBuilder("list: ");
+        multipleElementList.appendTo(output, ", ", value -> "#" + value, 4);
+        assertEquals("list: #4, #3, #5, #7, ... 2 more", output.toString());
+        assertThrows(IllegalArgumentException.class , () -> {
+            multipleElementList.toString(-1);
+        });
+    }
+
+    @Test
+    void testWriteTo_writingToWriterAndChannel_writesSameText() throws IOException {
+        StringWriter writer = new StringWriter();
+        multipleElementList.writeTo(writer);
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", writer.toString());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        multipleElementList.writeTo(java.nio.channels.Channels.newChannel(bytes), java.nio.charset.StandardCharsets.UTF_8);
+        assertEquals(writer.toString(), bytes.toString("UTF-8"));
+    }
+
+    @Test
+    void testSetAdaptive_changingOperationMix_switchesIndexingBackAndForth() {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<Integer>();
+        list.setAdaptive(true);
+        for (int i = 0; i < 50000; i++) {
+            list.addLast(i);
+            list.addLast(list.removeFirst());
+        }
+        assertFalse(list.isIndexed());
+
+        List<Integer> expected = new ArrayList<Integer>(list);
+        Random random = new Random(3);
+        for (int i = 0; i < 10000; i++) {
+            int position = random.nextInt(list.size());
+            assertEquals(expected.get(position), list.get(position));
+        }
+        assertTrue(list.isIndexed());
+
+        for (int i = 0; i < 10000; i++) {
+            list.addLast(list.removeFirst());
+            expected.add(expected.remove(0));
+        }
+        assertFalse(list.isIndexed());
+        assertEquals(expected, list);
+        assertEquals(expected.get(12345), list.get(12345));
+    }
+}
@@ -0,0 +1,390 @@
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+
+// DoublyLinkedList specialised for int values. Values and the next/previous
+// links live in parallel arrays and links are slot numbers instead of
+// references, so adding, removing and searching never box or allocate
+// once the arrays are large enough. Slot 0 plays the part of nil.
+
+public class IntDoublyLinkedList implements Cloneable, Serializable {
+
+    private static final int NIL = 0;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] values;
+    private int[] next;
+    private int[] previous;
+    private int size;
+    private int freeSlot;
+    private int usedSlots;
+    private final int noEntryValue;
+
+    // Constructors
+    public IntDoublyLinkedList() {
+        this(DEFAULT_CAPACITY, 0);
+    }
+
+    public IntDoublyLinkedList(int initialCapacity) {
+        this(initialCapacity, 0);
+    }
+
+    // noEntryValue is what the poll and peek methods return on an empty list
+    public IntDoublyLinkedList(int initialCapacity, int noEntryValue) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Invalid capacity");
+        }
+        values = new int[initialCapacity + 1];
+        next = new int[initialCapacity + 1];
+        previous = new int[initialCapacity + 1];
+        this.noEntryValue = noEntryValue;
+        clear();
+    }
+
+    public IntDoublyLinkedList(int[] array) {
+        this(array.length, 0);
+        for (int value : array) {
+            addLast(value);
+        }
+    }
+
+    // Clonable Interface Override Requirements
+
+    @Override
+    public Object clone() {
+        try {
+            IntDoublyLinkedList copy = (IntDoublyLinkedList) super.clone();
+            copy.values = values.clone();
+            copy.next = next.clone();
+            copy.previous = previous.clone();
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    // List Style Methods
+
+    public boolean add(int value) {
+        addLast(value);
+        return true;
+    }
+
+    public void add(int index, int value) {
+        int successor = index == size ? NIL : slotAt(index);
+        linkBefore(allocate(value), successor);
+    }
+
+    public void clear() {
+        next[NIL] = NIL;
+        previous[NIL] = NIL;
+        size = 0;
+        freeSlot = NIL;
+        usedSlots = 1;
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    public int get(int index) {
+        return values[slotAt(index)];
+    }
+
+    public int indexOf(int value) {
+        int index = 0;
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            if (values[slot] == value) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(int value) {
+        int index = size - 1;
+        for (int slot = previous[NIL]; slot != NIL; slot = previous[slot]) {
+            if (values[slot] == value) {
+                return index;
+            }
+            index--;
+        }
+        return -1;
+    }
+
+    public int removeAt(int index) {
+        int slot = slotAt(index);
+        int value = values[slot];
+        unlink(slot);
+        return value;
+    }
+
+    public int set(int index, int value) {
+        int slot = slotAt(index);
+        int oldValue = values[slot];
+        values[slot] = value;
+        return oldValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toArray() {
+        int[] array = new int[size];
+        int arrayIndex = 0;
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            array[arrayIndex++] = values[slot];
+        }
+        return array;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            action.accept(values[slot]);
+        }
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return new SlotIterator(false);
+    }
+
+    // Deque Style Methods
+
+    public void addFirst(int value) {
+        linkBefore(allocate(value), next[NIL]);
+    }
+
+    public void addLast(int value) {
+        linkBefore(allocate(value), NIL);
+    }
+
+    public boolean offerFirst(int value) {
+        addFirst(value);
+        return true;
+    }
+
+    public boolean offerLast(int value) {
+        addLast(value);
+        return true;
+    }
+
+    public PrimitiveIterator.OfInt descendingIterator() {
+        return new SlotIterator(true);
+    }
+
+    public int getFirst() {
+        if ( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        return values[next[NIL]];
+    }
+
+    public int getLast() {
+        if ( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        return values[previous[NIL]];
+    }
+
+    public int peekFirstInt() {
+        return isEmpty() ? noEntryValue : values[next[NIL]];
+    }
+
+    public int peekLastInt() {
+        return isEmpty() ? noEntryValue : values[previous[NIL]];
+    }
+
+    public int pollFirstInt() {
+        return isEmpty() ? noEntryValue : removeFirst();
+    }
+
+    public int pollLastInt() {
+        return isEmpty() ? noEntryValue : removeLast();
+    }
+
+    public int removeFirst() {
+        if( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        int slot = next[NIL];
+        int value = values[slot];
+        unlink(slot);
+        return value;
+    }
+
+    public int removeLast() {
+        if( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        int slot = previous[NIL];
+        int value = values[slot];
+        unlink(slot);
+        return value;
+    }
+
+    public boolean removeFirstOccurrence(int value) {
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            if (values[slot] == value) {
+                unlink(slot);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean removeLastOccurrence(int value) {
+        for (int slot = previous[NIL]; slot != NIL; slot = previous[slot]) {
+            if (values[slot] == value) {
+                unlink(slot);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getNoEntryValue() {
+        return noEntryValue;
+    }
+
+    // Extra Override Methods
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof IntDoublyLinkedList)) return false;
+        IntDoublyLinkedList other = (IntDoublyLinkedList) o;
+        if (size != other.size) return false;
+
+        int otherSlot = other.next[NIL];
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            if (values[slot] != other.values[otherSlot]) {
+                return false;
+            }
+            otherSlot = other.next[otherSlot];
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            hashCode = 31 * hashCode + Integer.hashCode(values[slot]);
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            if (slot != next[NIL]) {
+                output.append(" ==> ");
+            }
+            output.append(values[slot]);
+        }
+        return output.toString();
+    }
+
+
+    // Helper Methods
+
+    private void verifyIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+    }
+
+    private int slotAt(int index) {
+        verifyIndex(index);
+        int slot = NIL;
+        if (index < size / 2) {
+            while (index-- >= 0) {
+                slot = next[slot];
+            }
+        } else {
+            while (++index <= size) {
+                slot = previous[slot];
+            }
+        }
+        return slot;
+    }
+
+    // Removed slots are chained through next[] and handed out again first
+    private int allocate(int value) {
+        int slot;
+        if (freeSlot != NIL) {
+            slot = freeSlot;
+            freeSlot = next[slot];
+        } else {
+            if (usedSlots == values.length) {
+                grow();
+            }
+            slot = usedSlots++;
+        }
+        values[slot] = value;
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = values.length + (values.length >> 1) + 1;
+        values = Arrays.copyOf(values, capacity);
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+    }
+
+    private void linkBefore(int slot, int successor) {
+        next[slot] = successor;
+        previous[slot] = previous[successor];
+        next[previous[successor]] = slot;
+        previous[successor] = slot;
+        size++;
+    }
+
+    private void unlink(int slot) {
+        next[previous[slot]] = next[slot];
+        previous[next[slot]] = previous[slot];
+        size--;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    private final class SlotIterator implements PrimitiveIterator.OfInt {
+        private final boolean descending;
+        private int nextSlot;
+        private int lastReturned = NIL;
+
+        SlotIterator(boolean descending) {
+            this.descending = descending;
+            nextSlot = descending ? previous[NIL] : next[NIL];
+        }
+
+        public boolean hasNext() {
+            return nextSlot != NIL;
+        }
+
+        public int nextInt() {
+            if (nextSlot == NIL) {
+                throw new NoSuchElementException("No next element exists.");
+            }
+            lastReturned = nextSlot;
+            nextSlot = descending ? previous[nextSlot] : next[nextSlot];
+            return values[lastReturned];
+        }
+
+        public void remove() {
+            if (lastReturned == NIL) {
+                throw new NoSuchElementException("No element to remove");
+            }
+            unlink(lastReturned);
+            lastReturned = NIL;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntDoublyLinkedListTest {
+
+    private IntDoublyLinkedList emptyList;
+    private IntDoublyLinkedList multipleElementList;
+
+    @BeforeEach
+    public void setUp()
+    {
+        // []
+        emptyList = new IntDoublyLinkedList(2, -1);
+        assertEquals( "", emptyList.toString() );
+
+        // [4 3 5 7 1 6]
+        multipleElementList = new IntDoublyLinkedList();
+        multipleElementList.addFirst(6);
+        multipleElementList.addFirst(1);
+        multipleElementList.addFirst(7);
+        multipleElementList.addFirst(5);
+        multipleElementList.addFirst(3);
+        multipleElementList.addFirst(4);
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString() );
+    }
+
+    @Test
+    void testAddLast_addingBeyondInitialCapacity_growsAndKeepsOrder() {
+        for (int i = 0; i < 10; i++) {
+            emptyList.addLast(i);
+        }
+        assertEquals(10, emptyList.size());
+        assertEquals("0 ==> 1 ==> 2 ==> 3 ==> 4 ==> 5 ==> 6 ==> 7 ==> 8 ==> 9", emptyList.toString());
+    }
+
+    @Test
+    void testPositionalMethods_addingGettingAndRemovingByIndex_updatesListCorrectly() {
+        multipleElementList.add(2, 9);
+        assertEquals(9, multipleElementList.get(2));
+        assertEquals(7, multipleElementList.set(4, 8));
+        assertEquals(3, multipleElementList.removeAt(1));
+        assertEquals("4 ==> 9 ==> 5 ==> 8 ==> 1 ==> 6", multipleElementList.toString());
+        assertThrows(IndexOutOfBoundsException.class , () -> {
+            multipleElementList.get(6);
+        });
+    }
+
+    @Test
+    void testSearch_searchingForValues_returnsCorrectPositions() {
+        multipleElementList.addLast(4);
+        assertTrue(multipleElementList.contains(7));
+        assertFalse(multipleElementList.contains(8));
+        assertEquals(0, multipleElementList.indexOf(4));
+        assertEquals(6, multipleElementList.lastIndexOf(4));
+        assertEquals(-1, multipleElementList.indexOf(8));
+    }
+
+    @Test
+    void testPoll_pollingBothEnds_returnsValuesOrNoEntryValueWhenEmpty() {
+        assertEquals(4, multipleElementList.pollFirstInt());
+        assertEquals(6, multipleElementList.pollLastInt());
+        assertEquals(-1, emptyList.pollFirstInt());
+        assertEquals(-1, emptyList.peekLastInt());
+        assertThrows(NoSuchElementException.class , () -> {
+            emptyList.removeFirst();
+        });
+    }
+
+    @Test
+    void testRemoveOccurrence_removingValues_reusesFreedSlots() {
+        assertTrue(multipleElementList.removeFirstOccurrence(5));
+        assertTrue(multipleElementList.removeLastOccurrence(6));
+        assertFalse(multipleElementList.removeLastOccurrence(6));
+        multipleElementList.addLast(2);
+        multipleElementList.addFirst(0);
+        assertEquals("0 ==> 4 ==> 3 ==> 7 ==> 1 ==> 2", multipleElementList.toString());
+    }
+
+    @Test
+    void testIterator_iteratingAndRemoving_walksInBothDirections() {
+        PrimitiveIterator.OfInt iterator = multipleElementList.iterator();
+        int sum = 0;
+        while (iterator.hasNext()) {
+            int value = iterator.nextInt();
+            sum += value;
+            if (value > 4) {
+                iterator.remove();
+            }
+        }
+        assertEquals(26, sum);
+        assertEquals("4 ==> 3 ==> 1", multipleElementList.toString());
+        PrimitiveIterator.OfInt descending = multipleElementList.descendingIterator();
+        assertEquals(1, descending.nextInt());
+        assertEquals(3, descending.nextInt());
+    }
+
+    @Test
+    void testCloneAndEquals_copyingList_createsIndependentEqualCopy() {
+        IntDoublyLinkedList clone = (IntDoublyLinkedList) multipleElementList.clone();
+        assertEquals(multipleElementList, clone);
+        assertEquals(multipleElementList.hashCode(), clone.hashCode());
+        clone.removeFirst();
+        assertNotEquals(multipleElementList, clone);
+        assertArrayEquals(new int[] {4, 3, 5, 7, 1, 6}, multipleElementList.toArray());
+    }
+
+    @Test
+    void testClear_clearingList_CorrectlyClearsList() {
+        multipleElementList.clear();
+        assertTrue(multipleElementList.isEmpty());
+        multipleElementList.addLast(3);
+        assertEquals("3", multipleElementList.toString());
+    }
+}
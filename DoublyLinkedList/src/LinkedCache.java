@@ -0,0 +1,230 @@
+import java.util.HashMap;
+import java.util.function.BiConsumer;
+
+
+// Bounded cache on DoublyLinkedList node handles. Every entry keeps the
+// NodeRef of its node, so a hit relinks it in O(1) instead of searching.
+//
+// LRU keeps one list, most recently used first, and evicts from the back.
+// LFU keeps a list of frequency buckets in ascending order, each with its
+// own list of entries, most recently used first. A hit moves the entry to
+// the bucket one frequency up. Eviction takes the least recently used
+// entry of the lowest bucket.
+//
+// Null keys and values are not permitted. Not thread safe.
+
+public class LinkedCache<K, V> {
+
+    public enum Policy { LRU, LFU }
+
+    private static final class Entry<K, V> {
+        public final K key;
+        public V value;
+        public NodeRef<Entry<K, V>> ref;
+        public Bucket<K, V> bucket;
+
+        public Entry (K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Bucket<K, V> {
+        public final long frequency;
+        public final DoublyLinkedList<Entry<K, V>> entries = new DoublyLinkedList<Entry<K, V>>();
+        public NodeRef<Bucket<K, V>> ref;
+
+        public Bucket (long frequency) {
+            this.frequency = frequency;
+        }
+    }
+
+    private final int capacity;
+    private final Policy policy;
+    private final BiConsumer<? super K, ? super V> evictionListener;
+    private final HashMap<K, Entry<K, V>> entries = new HashMap<K, Entry<K, V>>();
+
+    // LRU order, most recently used first
+    private final DoublyLinkedList<Entry<K, V>> recency = new DoublyLinkedList<Entry<K, V>>();
+    // LFU buckets, lowest frequency first, and the same buckets by frequency
+    private final DoublyLinkedList<Bucket<K, V>> buckets = new DoublyLinkedList<Bucket<K, V>>();
+    private final HashMap<Long, Bucket<K, V>> bucketsByFrequency = new HashMap<Long, Bucket<K, V>>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    // Constructors
+    public LinkedCache(int capacity) {
+        this(capacity, Policy.LRU);
+    }
+
+    public LinkedCache(int capacity, Policy policy) {
+        this(capacity, policy, null);
+    }
+
+    public LinkedCache(int capacity, Policy policy, BiConsumer<? super K, ? super V> evictionListener) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (policy == null) {
+            throw new NullPointerException("Policy cannot be null");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.evictionListener = evictionListener;
+    }
+
+    // Cache Operations
+
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        touch(entry);
+        return entry.value;
+    }
+
+    // Returns the value previously cached for key, or null
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("Null keys and values are not permitted");
+        }
+        Entry<K, V> entry = entries.get(key);
+        if (entry != null) {
+            V oldValue = entry.value;
+            entry.value = value;
+            touch(entry);
+            return oldValue;
+        }
+        if (entries.size() == capacity) {
+            evict();
+        }
+        entry = new Entry<K, V>(key, value);
+        entries.put(key, entry);
+        if (policy == Policy.LRU) {
+            entry.ref = recency.addFirstHandle(entry);
+        } else {
+            Bucket<K, V> lowest = bucketsByFrequency.get(1L);
+            if (lowest == null) {
+                lowest = new Bucket<K, V>(1);
+                lowest.ref = buckets.addFirstHandle(lowest);
+                bucketsByFrequency.put(1L, lowest);
+            }
+            entry.bucket = lowest;
+            entry.ref = lowest.entries.addFirstHandle(entry);
+        }
+        return null;
+    }
+
+    public V remove(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        unlink(entry);
+        return entry.value;
+    }
+
+    public boolean containsKey(K key) {
+        return entries.containsKey(key);
+    }
+
+    public void clear() {
+        entries.clear();
+        recency.clear();
+        buckets.clear();
+        bucketsByFrequency.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public Policy policy() {
+        return policy;
+    }
+
+    // Statistics
+
+    public long hitCount() {
+        return hits;
+    }
+
+    public long missCount() {
+        return misses;
+    }
+
+    public long evictionCount() {
+        return evictions;
+    }
+
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LinkedCache[" + policy + ", " + size() + "/" + capacity
+                + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+    }
+
+
+    // Helper Methods
+
+    private void touch(Entry<K, V> entry) {
+        if (policy == Policy.LRU) {
+            recency.moveToFront(entry.ref);
+            return;
+        }
+        // Any bucket above this one has a higher frequency, so a missing
+        // frequency + 1 bucket belongs right after it
+        Bucket<K, V> bucket = entry.bucket;
+        Bucket<K, V> nextBucket = bucketsByFrequency.get(bucket.frequency + 1);
+        if (nextBucket == null) {
+            nextBucket = new Bucket<K, V>(bucket.frequency + 1);
+            nextBucket.ref = buckets.insertAfter(bucket.ref, nextBucket);
+            bucketsByFrequency.put(nextBucket.frequency, nextBucket);
+        }
+        unlink(entry);
+        entry.bucket = nextBucket;
+        entry.ref = nextBucket.entries.addFirstHandle(entry);
+    }
+
+    private void evict() {
+        Entry<K, V> victim;
+        if (policy == Policy.LRU) {
+            victim = recency.getLast();
+        } else {
+            victim = buckets.getFirst().entries.getLast();
+        }
+        entries.remove(victim.key);
+        unlink(victim);
+        evictions++;
+        if (evictionListener != null) {
+            evictionListener.accept(victim.key, victim.value);
+        }
+    }
+
+    private void unlink(Entry<K, V> entry) {
+        if (policy == Policy.LRU) {
+            recency.removeHandle(entry.ref);
+            return;
+        }
+        Bucket<K, V> bucket = entry.bucket;
+        bucket.entries.removeHandle(entry.ref);
+        if (bucket.entries.isEmpty()) {
+            buckets.removeHandle(bucket.ref);
+            bucketsByFrequency.remove(bucket.frequency);
+        }
+    }
+}
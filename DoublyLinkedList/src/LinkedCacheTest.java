@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinkedCacheTest {
+
+    private LinkedCache<Integer, String> lruCache;
+    private LinkedCache<Integer, String> lfuCache;
+    private List<Integer> evicted;
+
+    @BeforeEach
+    void setUp() {
+        evicted = new ArrayList<Integer>();
+        lruCache = new LinkedCache<Integer, String>(3, LinkedCache.Policy.LRU, (k, v) -> evicted.add(k));
+        lfuCache = new LinkedCache<Integer, String>(3, LinkedCache.Policy.LFU, (k, v) -> evicted.add(k));
+        for (int key : new int[] {4, 3, 5}) {
+            lruCache.put(key, "v" + key);
+            lfuCache.put(key, "v" + key);
+        }
+    }
+
+    @Test
+    void testPut_lruCacheFull_evictsLeastRecentlyUsed() {
+        assertEquals("v4", lruCache.get(4));
+        lruCache.put(7, "v7");
+        assertEquals(List.of(3), evicted);
+        assertFalse(lruCache.containsKey(3));
+        lruCache.put(1, "v1");
+        assertEquals(List.of(3, 5), evicted);
+        assertEquals(3, lruCache.size());
+        assertEquals(2, lruCache.evictionCount());
+    }
+
+    @Test
+    void testPut_lfuCacheFull_evictsLeastFrequentlyUsed() {
+        lfuCache.get(4);
+        lfuCache.get(4);
+        lfuCache.get(3);
+        lfuCache.put(7, "v7");
+        assertEquals(List.of(5), evicted);
+        // 7 is the only entry used once
+        lfuCache.put(1, "v1");
+        assertEquals(List.of(5, 7), evicted);
+        lfuCache.get(1);
+        // 3 and 1 tie at two uses, 3 was used longer ago
+        lfuCache.put(6, "v6");
+        assertEquals(List.of(5, 7, 3), evicted);
+        assertTrue(lfuCache.containsKey(4));
+        assertTrue(lfuCache.containsKey(1));
+        assertTrue(lfuCache.containsKey(6));
+    }
+
+    @Test
+    void testPut_existingKey_replacesValueWithoutEviction() {
+        assertEquals("v3", lruCache.put(3, "three"));
+        assertEquals("three", lruCache.get(3));
+        assertEquals("v5", lfuCache.put(5, "five"));
+        assertEquals("five", lfuCache.get(5));
+        assertEquals(3, lruCache.size());
+        assertTrue(evicted.isEmpty());
+    }
+
+    @Test
+    void testGet_hitsAndMisses_areCounted() {
+        lruCache.get(4);
+        lruCache.get(5);
+        assertNull(lruCache.get(9));
+        assertEquals(2, lruCache.hitCount());
+        assertEquals(1, lruCache.missCount());
+        lruCache.resetStatistics();
+        assertEquals(0, lruCache.hitCount());
+    }
+
+    @Test
+    void testRemove_removedKey_isNotEvictedOrReported() {
+        assertEquals("v4", lfuCache.remove(4));
+        assertNull(lfuCache.remove(4));
+        lfuCache.put(7, "v7");
+        assertTrue(evicted.isEmpty());
+        lfuCache.clear();
+        assertEquals(0, lfuCache.size());
+        lfuCache.put(1, "v1");
+        assertEquals("v1", lfuCache.get(1));
+    }
+
+    @Test
+    void testPut_nullValue_throwsNullPointerException() {
+        assertThrows(NullPointerException.class , () -> {
+            lruCache.put(1, null);
+        });
+    }
+
+    @Test
+    void testConstructor_zeroCapacity_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class , () -> {
+            new LinkedCache<Integer, Integer>(0);
+        });
+    }
+}
@@ -0,0 +1,202 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+
+// Opt-in instrumentation for DoublyLinkedList, attached with setMetrics.
+// One instance may serve any number of lists on any number of threads.
+//
+// For every searching operation it counts calls and keeps histograms of
+// their latency and of the nodes they walked over. Operations that walk
+// at least the traversal threshold are also reported to Java Flight
+// Recorder as DoublyLinkedList.LongTraversal events. Lists without
+// metrics pay one null check per operation.
+
+public class ListMetrics implements ListMetricsMXBean {
+
+    public enum Operation {
+        // get, set, add, remove and listIterator by position
+        POSITION_LOOKUP,
+        INDEX_OF,
+        LAST_INDEX_OF,
+        CONTAINS,
+        // toString, appendTo and writeTo
+        TO_STRING
+    }
+
+    @Name("DoublyLinkedList.LongTraversal")
+    @Label("Long List Traversal")
+    @Category("DoublyLinkedList")
+    @Description("A list operation walked at least the configured number of nodes")
+    static final class LongTraversalEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Nodes Traversed")
+        long traversed;
+
+        @Label("List Size")
+        int size;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    private static final int BUCKETS = 64;
+    private static final int OPERATIONS = Operation.values().length;
+
+    // Per operation: calls, total nanos and total nodes
+    private final AtomicLongArray totals = new AtomicLongArray(OPERATIONS * 3);
+    private final AtomicLongArray latency = new AtomicLongArray(OPERATIONS * BUCKETS);
+    private final AtomicLongArray traversal = new AtomicLongArray(OPERATIONS * BUCKETS);
+    private volatile long traversalThreshold;
+    private ObjectName registeredName;
+
+    // Constructors
+    public ListMetrics() {
+        this(10000);
+    }
+
+    public ListMetrics(long traversalThreshold) {
+        setTraversalThreshold(traversalThreshold);
+    }
+
+    // Called by the list when an operation that started at startNanos is
+    // done. traversed is negative when the walk length is not known, as
+    // for lookups through the skip index.
+    void record(Operation operation, long traversed, int size, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        int slot = operation.ordinal();
+        totals.incrementAndGet(slot * 3);
+        totals.addAndGet(slot * 3 + 1, elapsed);
+        latency.incrementAndGet(slot * BUCKETS + bucket(elapsed));
+        if (traversed < 0) {
+            return;
+        }
+        totals.addAndGet(slot * 3 + 2, traversed);
+        traversal.incrementAndGet(slot * BUCKETS + bucket(traversed));
+        if (traversed >= traversalThreshold) {
+            LongTraversalEvent event = new LongTraversalEvent();
+            if (event.shouldCommit()) {
+                event.operation = operation.name();
+                event.traversed = traversed;
+                event.size = size;
+                event.elapsed = elapsed;
+                event.commit();
+            }
+        }
+    }
+
+    public long count(Operation operation) {
+        return totals.get(operation.ordinal() * 3);
+    }
+
+    public long[] latencyHistogram(Operation operation) {
+        return histogram(latency, operation);
+    }
+
+    public long[] traversalHistogram(Operation operation) {
+        return histogram(traversal, operation);
+    }
+
+    // JMX
+
+    // Registers this instance with the platform MBean server under
+    // DoublyLinkedList:type=ListMetrics,name=<name>
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("DoublyLinkedList:type=ListMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        registeredName = objectName;
+        return objectName;
+    }
+
+    public void unregisterMBean() throws JMException {
+        if (registeredName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            registeredName = null;
+        }
+    }
+
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        return totalsByOperation(0);
+    }
+
+    @Override
+    public Map<String, Long> getTotalNanos() {
+        return totalsByOperation(1);
+    }
+
+    @Override
+    public Map<String, Long> getTotalNodesTraversed() {
+        return totalsByOperation(2);
+    }
+
+    @Override
+    public long[] getLatencyHistogram(String operation) {
+        return latencyHistogram(Operation.valueOf(operation));
+    }
+
+    @Override
+    public long[] getTraversalHistogram(String operation) {
+        return traversalHistogram(Operation.valueOf(operation));
+    }
+
+    @Override
+    public long getTraversalThreshold() {
+        return traversalThreshold;
+    }
+
+    @Override
+    public void setTraversalThreshold(long nodes) {
+        if (nodes < 0) {
+            throw new IllegalArgumentException("Threshold cannot be negative");
+        }
+        traversalThreshold = nodes;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < totals.length(); i++) {
+            totals.set(i, 0);
+        }
+        for (int i = 0; i < latency.length(); i++) {
+            latency.set(i, 0);
+            traversal.set(i, 0);
+        }
+    }
+
+
+    // Helper Methods
+
+    private static int bucket(long value) {
+        return value <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(value);
+    }
+
+    private static long[] histogram(AtomicLongArray counts, Operation operation) {
+        long[] histogram = new long[BUCKETS];
+        int first = operation.ordinal() * BUCKETS;
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = counts.get(first + i);
+        }
+        return histogram;
+    }
+
+    private Map<String, Long> totalsByOperation(int column) {
+        Map<String, Long> byOperation = new LinkedHashMap<String, Long>();
+        for (Operation operation : Operation.values()) {
+            byOperation.put(operation.name(), totals.get(operation.ordinal() * 3 + column));
+        }
+        return byOperation;
+    }
+}
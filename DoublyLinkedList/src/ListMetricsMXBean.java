@@ -0,0 +1,25 @@
+import java.util.Map;
+
+
+// Management view of a ListMetrics. Operation names are the names of
+// ListMetrics.Operation. Bucket k of a histogram counts values in
+// [2^(k-1), 2^k); bucket 0 counts zeros.
+
+public interface ListMetricsMXBean {
+
+    Map<String, Long> getOperationCounts();
+
+    Map<String, Long> getTotalNanos();
+
+    Map<String, Long> getTotalNodesTraversed();
+
+    long[] getLatencyHistogram(String operation);
+
+    long[] getTraversalHistogram(String operation);
+
+    long getTraversalThreshold();
+
+    void setTraversalThreshold(long nodes);
+
+    void reset();
+}
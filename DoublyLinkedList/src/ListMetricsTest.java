@@ -0,0 +1,107 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListMetricsTest {
+
+    private DoublyLinkedList<Integer> list;
+    private ListMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        // [4 3 5 7 1 6]
+        list = new DoublyLinkedList<Integer>(List.of(4, 3, 5, 7, 1, 6));
+        metrics = new ListMetrics(1000);
+        list.setMetrics(metrics);
+    }
+
+    @Test
+    void testRecord_searchingOperations_countsCallsAndNodesTraversed() {
+        assertEquals(3, list.indexOf(7));
+        assertEquals(-1, list.lastIndexOf(9));
+        assertTrue(list.contains(5));
+        assertEquals(1, list.get(4));
+        list.toString();
+
+        assertEquals(1, metrics.count(ListMetrics.Operation.INDEX_OF));
+        assertEquals(1, metrics.count(ListMetrics.Operation.TO_STRING));
+        Map<String, Long> traversed = metrics.getTotalNodesTraversed();
+        assertEquals(4, traversed.get("INDEX_OF"));
+        assertEquals(6, traversed.get("LAST_INDEX_OF"));
+        assertEquals(4, traversed.get("CONTAINS"));
+        assertEquals(2, traversed.get("POSITION_LOOKUP"));
+        assertEquals(6, traversed.get("TO_STRING"));
+        // 4 nodes fall in bucket [4, 8)
+        assertEquals(1, metrics.traversalHistogram(ListMetrics.Operation.INDEX_OF)[3]);
+        long latencySamples = 0;
+        for (long count : metrics.latencyHistogram(ListMetrics.Operation.CONTAINS)) {
+            latencySamples += count;
+        }
+        assertEquals(1, latencySamples);
+    }
+
+    @Test
+    void testSetMetrics_detachingMetrics_stopsRecording() {
+        list.setMetrics(null);
+        list.indexOf(1);
+        list.get(2);
+        assertEquals(0, metrics.count(ListMetrics.Operation.INDEX_OF));
+        assertEquals(0, metrics.count(ListMetrics.Operation.POSITION_LOOKUP));
+        list.setMetrics(metrics);
+        list.get(2);
+        metrics.reset();
+        assertEquals(0, metrics.count(ListMetrics.Operation.POSITION_LOOKUP));
+    }
+
+    @Test
+    void testRegisterMBean_readingOverJmx_returnsCounts() throws JMException {
+        ObjectName name = metrics.registerMBean("test-list");
+        try {
+            list.contains(8);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1000L, server.getAttribute(name, "TraversalThreshold"));
+            long[] histogram = (long[]) server.invoke(name, "getTraversalHistogram",
+                    new Object[] {"CONTAINS"}, new String[] {String.class.getName()});
+            assertEquals(1, histogram[3]);
+        } finally {
+            metrics.unregisterMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    void testRecord_walkAboveThreshold_emitsFlightRecorderEvent() throws Exception {
+        DoublyLinkedList<Integer> longList = new DoublyLinkedList<Integer>();
+        for (int i = 0; i < 5000; i++) {
+            longList.add(i);
+        }
+        longList.setMetrics(metrics);
+        Path file = Files.createTempFile("list-metrics", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("DoublyLinkedList.LongTraversal");
+            recording.start();
+            longList.indexOf(10);
+            longList.indexOf(4000);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        assertEquals(1, events.size());
+        assertEquals("INDEX_OF", events.get(0).getString("operation"));
+        assertEquals(4001, events.get(0).getLong("traversed"));
+    }
+}
@@ -0,0 +1,390 @@
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.LongConsumer;
+
+
+// DoublyLinkedList specialised for long values. Values and the next/previous
+// links live in parallel arrays and links are slot numbers instead of
+// references, so adding, removing and searching never box or allocate
+// once the arrays are large enough. Slot 0 plays the part of nil.
+
+public class LongDoublyLinkedList implements Cloneable, Serializable {
+
+    private static final int NIL = 0;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values;
+    private int[] next;
+    private int[] previous;
+    private int size;
+    private int freeSlot;
+    private int usedSlots;
+    private final long noEntryValue;
+
+    // Constructors
+    public LongDoublyLinkedList() {
+        this(DEFAULT_CAPACITY, 0);
+    }
+
+    public LongDoublyLinkedList(int initialCapacity) {
+        this(initialCapacity, 0);
+    }
+
+    // noEntryValue is what the poll and peek methods return on an empty list
+    public LongDoublyLinkedList(int initialCapacity, long noEntryValue) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Invalid capacity");
+        }
+        values = new long[initialCapacity + 1];
+        next = new int[initialCapacity + 1];
+        previous = new int[initialCapacity + 1];
+        this.noEntryValue = noEntryValue;
+        clear();
+    }
+
+    public LongDoublyLinkedList(long[] array) {
+        this(array.length, 0);
+        for (long value : array) {
+            addLast(value);
+        }
+    }
+
+    // Clonable Interface Override Requirements
+
+    @Override
+    public Object clone() {
+        try {
+            LongDoublyLinkedList copy = (LongDoublyLinkedList) super.clone();
+            copy.values = values.clone();
+            copy.next = next.clone();
+            copy.previous = previous.clone();
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    // List Style Methods
+
+    public boolean add(long value) {
+        addLast(value);
+        return true;
+    }
+
+    public void add(int index, long value) {
+        int successor = index == size ? NIL : slotAt(index);
+        linkBefore(allocate(value), successor);
+    }
+
+    public void clear() {
+        next[NIL] = NIL;
+        previous[NIL] = NIL;
+        size = 0;
+        freeSlot = NIL;
+        usedSlots = 1;
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    public long get(int index) {
+        return values[slotAt(index)];
+    }
+
+    public int indexOf(long value) {
+        int index = 0;
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            if (values[slot] == value) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(long value) {
+        int index = size - 1;
+        for (int slot = previous[NIL]; slot != NIL; slot = previous[slot]) {
+            if (values[slot] == value) {
+                return index;
+            }
+            index--;
+        }
+        return -1;
+    }
+
+    public long removeAt(int index) {
+        int slot = slotAt(index);
+        long value = values[slot];
+        unlink(slot);
+        return value;
+    }
+
+    public long set(int index, long value) {
+        int slot = slotAt(index);
+        long oldValue = values[slot];
+        values[slot] = value;
+        return oldValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toArray() {
+        long[] array = new long[size];
+        int arrayIndex = 0;
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            array[arrayIndex++] = values[slot];
+        }
+        return array;
+    }
+
+    public void forEach(LongConsumer action) {
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            action.accept(values[slot]);
+        }
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return new SlotIterator(false);
+    }
+
+    // Deque Style Methods
+
+    public void addFirst(long value) {
+        linkBefore(allocate(value), next[NIL]);
+    }
+
+    public void addLast(long value) {
+        linkBefore(allocate(value), NIL);
+    }
+
+    public boolean offerFirst(long value) {
+        addFirst(value);
+        return true;
+    }
+
+    public boolean offerLast(long value) {
+        addLast(value);
+        return true;
+    }
+
+    public PrimitiveIterator.OfLong descendingIterator() {
+        return new SlotIterator(true);
+    }
+
+    public long getFirst() {
+        if ( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        return values[next[NIL]];
+    }
+
+    public long getLast() {
+        if ( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        return values[previous[NIL]];
+    }
+
+    public long peekFirstLong() {
+        return isEmpty() ? noEntryValue : values[next[NIL]];
+    }
+
+    public long peekLastLong() {
+        return isEmpty() ? noEntryValue : values[previous[NIL]];
+    }
+
+    public long pollFirstLong() {
+        return isEmpty() ? noEntryValue : removeFirst();
+    }
+
+    public long pollLastLong() {
+        return isEmpty() ? noEntryValue : removeLast();
+    }
+
+    public long removeFirst() {
+        if( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        int slot = next[NIL];
+        long value = values[slot];
+        unlink(slot);
+        return value;
+    }
+
+    public long removeLast() {
+        if( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        int slot = previous[NIL];
+        long value = values[slot];
+        unlink(slot);
+        return value;
+    }
+
+    public boolean removeFirstOccurrence(long value) {
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            if (values[slot] == value) {
+                unlink(slot);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean removeLastOccurrence(long value) {
+        for (int slot = previous[NIL]; slot != NIL; slot = previous[slot]) {
+            if (values[slot] == value) {
+                unlink(slot);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getNoEntryValue() {
+        return noEntryValue;
+    }
+
+    // Extra Override Methods
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof LongDoublyLinkedList)) return false;
+        LongDoublyLinkedList other = (LongDoublyLinkedList) o;
+        if (size != other.size) return false;
+
+        int otherSlot = other.next[NIL];
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            if (values[slot] != other.values[otherSlot]) {
+                return false;
+            }
+            otherSlot = other.next[otherSlot];
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            hashCode = 31 * hashCode + Long.hashCode(values[slot]);
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        for (int slot = next[NIL]; slot != NIL; slot = next[slot]) {
+            if (slot != next[NIL]) {
+                output.append(" ==> ");
+            }
+            output.append(values[slot]);
+        }
+        return output.toString();
+    }
+
+
+    // Helper Methods
+
+    private void verifyIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+    }
+
+    private int slotAt(int index) {
+        verifyIndex(index);
+        int slot = NIL;
+        if (index < size / 2) {
+            while (index-- >= 0) {
+                slot = next[slot];
+            }
+        } else {
+            while (++index <= size) {
+                slot = previous[slot];
+            }
+        }
+        return slot;
+    }
+
+    // Removed slots are chained through next[] and handed out again first
+    private int allocate(long value) {
+        int slot;
+        if (freeSlot != NIL) {
+            slot = freeSlot;
+            freeSlot = next[slot];
+        } else {
+            if (usedSlots == values.length) {
+                grow();
+            }
+            slot = usedSlots++;
+        }
+        values[slot] = value;
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = values.length + (values.length >> 1) + 1;
+        values = Arrays.copyOf(values, capacity);
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+    }
+
+    private void linkBefore(int slot, int successor) {
+        next[slot] = successor;
+        previous[slot] = previous[successor];
+        next[previous[successor]] = slot;
+        previous[successor] = slot;
+        size++;
+    }
+
+    private void unlink(int slot) {
+        next[previous[slot]] = next[slot];
+        previous[next[slot]] = previous[slot];
+        size--;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    private final class SlotIterator implements PrimitiveIterator.OfLong {
+        private final boolean descending;
+        private int nextSlot;
+        private int lastReturned = NIL;
+
+        SlotIterator(boolean descending) {
+            this.descending = descending;
+            nextSlot = descending ? previous[NIL] : next[NIL];
+        }
+
+        public boolean hasNext() {
+            return nextSlot != NIL;
+        }
+
+        public long nextLong() {
+            if (nextSlot == NIL) {
+                throw new NoSuchElementException("No next element exists.");
+            }
+            lastReturned = nextSlot;
+            nextSlot = descending ? previous[nextSlot] : next[nextSlot];
+            return values[lastReturned];
+        }
+
+        public void remove() {
+            if (lastReturned == NIL) {
+                throw new NoSuchElementException("No element to remove");
+            }
+            unlink(lastReturned);
+            lastReturned = NIL;
+        }
+    }
+}
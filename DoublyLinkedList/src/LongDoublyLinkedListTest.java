@@ -0,0 +1,47 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongDoublyLinkedListTest {
+
+    private LongDoublyLinkedList multipleElementList;
+
+    @BeforeEach
+    public void setUp()
+    {
+        // [4 3 5 7 1 6]
+        multipleElementList = new LongDoublyLinkedList(new long[] {4, 3, 5, 7, 1, 6});
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString() );
+    }
+
+    @Test
+    void testAdd_addingLargeValues_keepsFullLongRange() {
+        multipleElementList.addFirst(Long.MAX_VALUE);
+        multipleElementList.add(1, Long.MIN_VALUE);
+        assertEquals(Long.MAX_VALUE, multipleElementList.getFirst());
+        assertEquals(Long.MIN_VALUE, multipleElementList.get(1));
+        assertEquals(1, multipleElementList.indexOf(Long.MIN_VALUE));
+    }
+
+    @Test
+    void testDequeMethods_removingFromBothEnds_returnsValuesInOrder() {
+        assertEquals(4L, multipleElementList.removeFirst());
+        assertEquals(6L, multipleElementList.pollLastLong());
+        assertEquals(3L, multipleElementList.peekFirstLong());
+        assertEquals("3 ==> 5 ==> 7 ==> 1", multipleElementList.toString());
+    }
+
+    @Test
+    void testIterator_iteratingValues_returnsValuesWithoutBoxing() {
+        PrimitiveIterator.OfLong iterator = multipleElementList.iterator();
+        long sum = 0;
+        while (iterator.hasNext()) {
+            sum += iterator.nextLong();
+        }
+        assertEquals(26L, sum);
+        assertArrayEquals(new long[] {4, 3, 5, 7, 1, 6}, multipleElementList.toArray());
+    }
+}
@@ -0,0 +1,528 @@
+import java.io.*;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+
+// A DoublyLinkedList whose nodes live in a memory-mapped file, for queues
+// that must survive a restart. Opening an existing file maps it and is
+// ready; nothing is read back element by element.
+//
+// The file is a 4 KB header followed by fixed-size slots. A slot holds the
+// previous and next slot numbers, the payload length and up to slotPayload
+// bytes written by an ElementEncoder. Slot 0 is the nil sentinel. Removed
+// slots are chained on a free list and reused before the file grows.
+//
+// Every change to the links is first described in the header as a pending
+// operation whose fields are absolute values. The operation code is
+// written last, the links are updated, then the code is cleared. If the
+// process dies part way, open() replays the pending operation, so the
+// chain is never seen half linked. Writes reach the page cache at once and
+// survive a process crash. A power failure is only survived as of a
+// force() that returned with no change made since: the OS writes dirty
+// slot and header pages back in no particular order, so after a later
+// change the file on disk may mix old and new pages.
+//
+// Like DoublyLinkedList this class is not thread safe.
+
+public class MappedDoublyLinkedList<T> extends AbstractCollection<T> implements Deque<T>, Closeable {
+
+    private static final int MAGIC = 0x444C4C4D;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4096;
+
+    // Header fields
+    private static final int MAGIC_AT = 0;
+    private static final int VERSION_AT = 4;
+    private static final int PAYLOAD_AT = 8;
+    private static final int SIZE_AT = 12;
+    private static final int FREE_AT = 16;
+    private static final int HIGH_WATER_AT = 20;
+
+    // Pending operation
+    private static final int OP_AT = 32;
+    private static final int OP_SLOT_AT = 36;
+    private static final int OP_PREVIOUS_AT = 40;
+    private static final int OP_NEXT_AT = 44;
+    private static final int OP_FREE_AT = 48;
+    private static final int OP_SIZE_AT = 52;
+    private static final int OP_HIGH_WATER_AT = 56;
+
+    private static final int OP_NONE = 0;
+    private static final int OP_LINK = 1;
+    private static final int OP_UNLINK = 2;
+    private static final int OP_CLEAR = 3;
+
+    // Slot fields
+    private static final int PREVIOUS = 0;
+    private static final int NEXT = 4;
+    private static final int LENGTH = 8;
+    private static final int PAYLOAD = 12;
+
+    private static final int NIL = 0;
+    private static final int FREE_MARK = -1;
+
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+    private static final int MAX_SEGMENT_SLOTS = 1 << 20;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final DoublyLinkedListCodec.ElementEncoder<T> encoder;
+    private final int slotPayload;
+    private final int slotSize;
+    private final int segmentShift;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    private final PayloadBuffer payloadBuffer = new PayloadBuffer();
+    private final DataOutputStream payloadOutput = new DataOutputStream(payloadBuffer);
+
+    // Constructors
+
+    // Opens the file, creating it when it does not exist. slotPayload is
+    // the largest encoded element, in bytes; it must match the value the
+    // file was created with.
+    public static <T> MappedDoublyLinkedList<T> open(Path file, int slotPayload,
+                                                     DoublyLinkedListCodec.ElementEncoder<T> encoder) throws IOException {
+        if (slotPayload <= 0 || slotPayload > MAX_SEGMENT_BYTES - PAYLOAD) {
+            throw new IllegalArgumentException("Invalid slot payload");
+        }
+        if (encoder == null) {
+            throw new NullPointerException("Encoder cannot be null");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new MappedDoublyLinkedList<T>(channel, slotPayload, encoder);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private MappedDoublyLinkedList(FileChannel channel, int slotPayload,
+                                   DoublyLinkedListCodec.ElementEncoder<T> encoder) throws IOException {
+        this.channel = channel;
+        this.encoder = encoder;
+        this.slotPayload = slotPayload;
+        slotSize = PAYLOAD + slotPayload;
+        int segmentSlots = Integer.highestOneBit(Math.max(1, MAX_SEGMENT_BYTES / slotSize));
+        segmentShift = Integer.numberOfTrailingZeros(Math.min(segmentSlots, MAX_SEGMENT_SLOTS));
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+        if (header.getInt(MAGIC_AT) == 0) {
+            initialize();
+            return;
+        }
+        if (header.getInt(MAGIC_AT) != MAGIC || header.getInt(VERSION_AT) != VERSION) {
+            throw new StreamCorruptedException("Not a MappedDoublyLinkedList file");
+        }
+        if (header.getInt(PAYLOAD_AT) != slotPayload) {
+            throw new IllegalArgumentException("File was created with a slot payload of "
+                    + header.getInt(PAYLOAD_AT) + " bytes");
+        }
+        int highWater = Math.max(header.getInt(HIGH_WATER_AT), header.getInt(OP_HIGH_WATER_AT));
+        ensureMapped(highWater - 1);
+        if (header.getInt(OP_AT) != OP_NONE) {
+            apply();
+        }
+    }
+
+    // Collection Interface Override Requirements
+
+    @Override
+    public boolean add(T value) {
+        addLast(value);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        commit(OP_CLEAR);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new SlotIterator(NEXT);
+    }
+
+    @Override
+    public int size() {
+        return header.getInt(SIZE_AT);
+    }
+
+    // Deque Interface Method Requirements
+
+    @Override
+    public void addFirst(T value) {
+        linkBetween(value, NIL, getInt(NIL, NEXT));
+    }
+
+    @Override
+    public void addLast(T value) {
+        linkBetween(value, getInt(NIL, PREVIOUS), NIL);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new SlotIterator(PREVIOUS);
+    }
+
+    @Override
+    public T element() {
+        return getFirst();
+    }
+
+    @Override
+    public T getFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        return readPayload(getInt(NIL, NEXT));
+    }
+
+    @Override
+    public T getLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        return readPayload(getInt(NIL, PREVIOUS));
+    }
+
+    @Override
+    public boolean offer(T value) {
+        return offerLast(value);
+    }
+
+    @Override
+    public boolean offerFirst(T value) {
+        addFirst(value);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(T value) {
+        addLast(value);
+        return true;
+    }
+
+    @Override
+    public T peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public T peekFirst() {
+        return isEmpty() ? null : readPayload(getInt(NIL, NEXT));
+    }
+
+    @Override
+    public T peekLast() {
+        return isEmpty() ? null : readPayload(getInt(NIL, PREVIOUS));
+    }
+
+    @Override
+    public T poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public T pollFirst() {
+        return isEmpty() ? null : removeFirst();
+    }
+
+    @Override
+    public T pollLast() {
+        return isEmpty() ? null : removeLast();
+    }
+
+    @Override
+    public T pop() {
+        return removeLast();
+    }
+
+    @Override
+    public void push(T value) {
+        addLast(value);
+    }
+
+    @Override
+    public T remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public T removeFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        int slot = getInt(NIL, NEXT);
+        T data = readPayload(slot);
+        unlink(slot);
+        return data;
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        return removeOccurrence(o, iterator());
+    }
+
+    @Override
+    public T removeLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        int slot = getInt(NIL, PREVIOUS);
+        T data = readPayload(slot);
+        unlink(slot);
+        return data;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        return removeOccurrence(o, descendingIterator());
+    }
+
+    // Extra Override Methods
+
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        for (T data : this) {
+            if (output.length() > 0) {
+                output.append(" ==> ");
+            }
+            output.append(data);
+        }
+        return output.toString();
+    }
+
+
+    // Durability
+
+    // Writes every mapped page to the storage device. The file on disk
+    // matches the list once this returns, until the next change.
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+    }
+
+    // The mappings stay valid until they are garbage collected, but the
+    // list must not be used after close.
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+
+    // Helper Methods
+
+    private void initialize() {
+        ensureMapped(NIL);
+        putInt(NIL, PREVIOUS, NIL);
+        putInt(NIL, NEXT, NIL);
+        header.putInt(VERSION_AT, VERSION);
+        header.putInt(PAYLOAD_AT, slotPayload);
+        header.putInt(SIZE_AT, 0);
+        header.putInt(FREE_AT, NIL);
+        header.putInt(HIGH_WATER_AT, 1);
+        header.putInt(OP_AT, OP_NONE);
+        VarHandle.storeStoreFence();
+        header.putInt(MAGIC_AT, MAGIC);
+    }
+
+    private void linkBetween(T value, int previous, int next) {
+        int free = header.getInt(FREE_AT);
+        int highWater = header.getInt(HIGH_WATER_AT);
+        int slot;
+        if (free != NIL) {
+            slot = free;
+            free = getInt(slot, NEXT);
+        } else {
+            if (highWater == Integer.MAX_VALUE) {
+                throw new IllegalStateException("The file is full");
+            }
+            slot = highWater++;
+            ensureMapped(slot);
+        }
+        // The slot is not reachable yet, so a crash here loses nothing
+        writePayload(slot, value);
+        header.putInt(OP_SLOT_AT, slot);
+        header.putInt(OP_PREVIOUS_AT, previous);
+        header.putInt(OP_NEXT_AT, next);
+        header.putInt(OP_FREE_AT, free);
+        header.putInt(OP_SIZE_AT, size() + 1);
+        header.putInt(OP_HIGH_WATER_AT, highWater);
+        commit(OP_LINK);
+    }
+
+    private void unlink(int slot) {
+        header.putInt(OP_SLOT_AT, slot);
+        header.putInt(OP_PREVIOUS_AT, getInt(slot, PREVIOUS));
+        header.putInt(OP_NEXT_AT, getInt(slot, NEXT));
+        header.putInt(OP_FREE_AT, header.getInt(FREE_AT));
+        header.putInt(OP_SIZE_AT, size() - 1);
+        header.putInt(OP_HIGH_WATER_AT, header.getInt(HIGH_WATER_AT));
+        commit(OP_UNLINK);
+    }
+
+    private void commit(int op) {
+        VarHandle.storeStoreFence();
+        header.putInt(OP_AT, op);
+        VarHandle.storeStoreFence();
+        apply();
+    }
+
+    // Carries out the pending operation. Every write sets an absolute value
+    // taken from the header, so replaying a half finished one is safe.
+    private void apply() {
+        int slot = header.getInt(OP_SLOT_AT);
+        int previous = header.getInt(OP_PREVIOUS_AT);
+        int next = header.getInt(OP_NEXT_AT);
+        int free = header.getInt(OP_FREE_AT);
+        switch (header.getInt(OP_AT)) {
+            case OP_LINK:
+                putInt(slot, PREVIOUS, previous);
+                putInt(slot, NEXT, next);
+                putInt(previous, NEXT, slot);
+                putInt(next, PREVIOUS, slot);
+                header.putInt(FREE_AT, free);
+                header.putInt(HIGH_WATER_AT, header.getInt(OP_HIGH_WATER_AT));
+                header.putInt(SIZE_AT, header.getInt(OP_SIZE_AT));
+                break;
+            case OP_UNLINK:
+                putInt(previous, NEXT, next);
+                putInt(next, PREVIOUS, previous);
+                putInt(slot, NEXT, free);
+                putInt(slot, PREVIOUS, FREE_MARK);
+                header.putInt(FREE_AT, slot);
+                header.putInt(SIZE_AT, header.getInt(OP_SIZE_AT));
+                break;
+            case OP_CLEAR:
+                putInt(NIL, PREVIOUS, NIL);
+                putInt(NIL, NEXT, NIL);
+                header.putInt(FREE_AT, NIL);
+                header.putInt(HIGH_WATER_AT, 1);
+                header.putInt(SIZE_AT, 0);
+                break;
+            default:
+                throw new IllegalStateException("Unknown pending operation");
+        }
+        VarHandle.storeStoreFence();
+        header.putInt(OP_AT, OP_NONE);
+    }
+
+    private boolean removeOccurrence(Object o, Iterator<T> iterator) {
+        while (iterator.hasNext()) {
+            if (Objects.equals(o, iterator.next())) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureMapped(int slot) {
+        int segment = slot >>> segmentShift;
+        if (segment < segments.length) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, segment + 1);
+        long segmentBytes = (long) slotSize << segmentShift;
+        try {
+            for (int i = segments.length; i <= segment; i++) {
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + i * segmentBytes, segmentBytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments = grown;
+    }
+
+    private int getInt(int slot, int field) {
+        return segments[slot >>> segmentShift].getInt(offsetOf(slot) + field);
+    }
+
+    private void putInt(int slot, int field, int value) {
+        segments[slot >>> segmentShift].putInt(offsetOf(slot) + field, value);
+    }
+
+    private int offsetOf(int slot) {
+        return (slot & ((1 << segmentShift) - 1)) * slotSize;
+    }
+
+    private void writePayload(int slot, T value) {
+        payloadBuffer.reset();
+        try {
+            encoder.encode(value, payloadOutput);
+            payloadOutput.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int length = payloadBuffer.size();
+        if (length > slotPayload) {
+            throw new IllegalArgumentException("Element needs " + length + " bytes but a slot holds " + slotPayload);
+        }
+        ByteBuffer target = segments[slot >>> segmentShift].duplicate();
+        target.position(offsetOf(slot) + PAYLOAD);
+        target.put(payloadBuffer.bytes(), 0, length);
+        putInt(slot, LENGTH, length);
+    }
+
+    private T readPayload(int slot) {
+        byte[] bytes = new byte[getInt(slot, LENGTH)];
+        ByteBuffer source = segments[slot >>> segmentShift].duplicate();
+        source.position(offsetOf(slot) + PAYLOAD);
+        source.get(bytes);
+        try {
+            return encoder.decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Lets writePayload copy straight out of the encoding buffer
+    private static final class PayloadBuffer extends ByteArrayOutputStream {
+        byte[] bytes() {
+            return buf;
+        }
+    }
+
+    // Follows NEXT or PREVIOUS links from nil
+    private final class SlotIterator implements Iterator<T> {
+        private final int direction;
+        private int next;
+        private int lastReturned = NIL;
+
+        SlotIterator(int direction) {
+            this.direction = direction;
+            next = getInt(NIL, direction);
+        }
+
+        public boolean hasNext() {
+            return next != NIL;
+        }
+
+        public T next() {
+            if (next == NIL) {
+                throw new NoSuchElementException("No next element exists.");
+            }
+            lastReturned = next;
+            next = getInt(next, direction);
+            return readPayload(lastReturned);
+        }
+
+        public void remove() {
+            if (lastReturned == NIL) {
+                throw new IllegalStateException("No element to remove");
+            }
+            unlink(lastReturned);
+            lastReturned = NIL;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedDoublyLinkedListTest {
+
+    private Path file;
+    private MappedDoublyLinkedList<Integer> multipleElementList;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        file = Files.createTempFile("mapped-list", ".dll");
+        Files.delete(file);
+
+        // [4 3 5 7 1 6]
+        multipleElementList = MappedDoublyLinkedList.open(file, 4, DoublyLinkedListCodec.INTEGERS);
+        multipleElementList.addFirst(6);
+        multipleElementList.addFirst(1);
+        multipleElementList.addFirst(7);
+        multipleElementList.addFirst(5);
+        multipleElementList.addFirst(3);
+        multipleElementList.addFirst(4);
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString() );
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        multipleElementList.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void testDequeOperations_removingFromBothEnds_returnsElementsInOrder() {
+        assertEquals(4, multipleElementList.removeFirst());
+        assertEquals(6, multipleElementList.pollLast());
+        assertEquals(3, multipleElementList.peekFirst());
+        assertEquals(1, multipleElementList.getLast());
+        assertTrue(multipleElementList.removeFirstOccurrence(7));
+        assertEquals("3 ==> 5 ==> 1", multipleElementList.toString());
+        assertEquals(3, multipleElementList.size());
+        multipleElementList.clear();
+        assertNull(multipleElementList.pollFirst());
+        assertThrows(NoSuchElementException.class , () -> {
+            multipleElementList.removeLast();
+        });
+    }
+
+    @Test
+    void testOpen_reopeningFile_restoresElementsWithoutReloading() throws IOException {
+        multipleElementList.removeFirst();
+        multipleElementList.addLast(9);
+        multipleElementList.close();
+
+        multipleElementList = MappedDoublyLinkedList.open(file, 4, DoublyLinkedListCodec.INTEGERS);
+        assertEquals("3 ==> 5 ==> 7 ==> 1 ==> 6 ==> 9", multipleElementList.toString());
+        Iterator<Integer> descending = multipleElementList.descendingIterator();
+        assertEquals(9, descending.next());
+        assertEquals(6, descending.next());
+        descending.remove();
+        assertEquals(5, multipleElementList.size());
+    }
+
+    @Test
+    void testAddAndRemove_steadyQueue_reusesFreeSlotsWithoutGrowingFile() throws IOException {
+        for (int i = 0; i < 100000; i++) {
+            multipleElementList.addLast(i);
+        }
+        for (int i = 0; i < 100000; i++) {
+            multipleElementList.removeFirst();
+        }
+        long fileSize = Files.size(file);
+        for (int i = 0; i < 200000; i++) {
+            multipleElementList.addLast(i);
+            multipleElementList.removeFirst();
+        }
+        assertEquals(fileSize, Files.size(file));
+        assertEquals(6, multipleElementList.size());
+    }
+
+    @Test
+    void testOpen_mismatchedOrOversizedPayload_throwsIllegalArgumentException() throws IOException {
+        multipleElementList.close();
+        assertThrows(IllegalArgumentException.class , () -> {
+            MappedDoublyLinkedList.open(file, 8, DoublyLinkedListCodec.INTEGERS);
+        });
+        Files.delete(file);
+        MappedDoublyLinkedList<Long> longs = MappedDoublyLinkedList.open(file, 4, DoublyLinkedListCodec.LONGS);
+        assertThrows(IllegalArgumentException.class , () -> {
+            longs.addLast(1L);
+        });
+        assertTrue(longs.isEmpty());
+        longs.close();
+        multipleElementList = MappedDoublyLinkedList.open(file, 4, DoublyLinkedListCodec.INTEGERS);
+    }
+}
@@ -0,0 +1,10 @@
+// Handle to one element of a DoublyLinkedList, returned by addFirstHandle,
+// addLastHandle and insertAfter. It stays valid while the element is in a
+// list, including after the element is moved, spliced or split into
+// another list, and can be passed back to that list for O(1) changes.
+
+public interface NodeRef<T> {
+    T get();
+
+    boolean isLinked();
+}
@@ -0,0 +1,313 @@
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+
+// Thread safe DoublyLinkedList for lists that are read far more often than
+// they are written.
+//
+// Reads first run without locking under an optimistic StampedLock stamp
+// and keep their result only if no write happened meanwhile. A read that
+// overlapped a write, or tripped over the half-changed list, runs again
+// under the shared read lock. Writes take the exclusive write lock, so
+// readers only wait while a write is in progress.
+//
+// Positional reads walk from the nearer end. Iterators and toArray work
+// on a snapshot taken in one read and do not support remove.
+
+public class StampedDoublyLinkedList<T> extends AbstractCollection<T> {
+
+    private final DoublyLinkedList<T> list;
+    private final StampedLock lock = new StampedLock();
+
+    // Constructors
+    public StampedDoublyLinkedList() {
+        list = new DoublyLinkedList<T>();
+    }
+
+    public StampedDoublyLinkedList(Collection<? extends T> collection) {
+        list = new DoublyLinkedList<T>(collection);
+    }
+
+    // Reads
+
+    public T get(int index) {
+        long stamp = lock.tryOptimisticRead();
+        try {
+            T value = list.readAt(index);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        } catch (RuntimeException e) {
+            // Read a list that was being changed; decided under the lock
+        }
+        stamp = lock.readLock();
+        try {
+            return list.readAt(index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int indexOf(Object o) {
+        return search(o, false);
+    }
+
+    public int lastIndexOf(Object o) {
+        return search(o, true);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return search(o, false) >= 0;
+    }
+
+    public T peekFirst() {
+        long stamp = lock.tryOptimisticRead();
+        try {
+            T value = list.peekFirst();
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        } catch (RuntimeException e) {
+            // Read a list that was being changed; decided under the lock
+        }
+        stamp = lock.readLock();
+        try {
+            return list.peekFirst();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public T peekLast() {
+        long stamp = lock.tryOptimisticRead();
+        try {
+            T value = list.peekLast();
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        } catch (RuntimeException e) {
+            // Read a list that was being changed; decided under the lock
+        }
+        stamp = lock.readLock();
+        try {
+            return list.peekLast();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int size = list.size();
+        if (lock.validate(stamp)) {
+            return size;
+        }
+        stamp = lock.readLock();
+        try {
+            return list.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Object[] toArray() {
+        long stamp = lock.tryOptimisticRead();
+        try {
+            Object[] array = list.toArray(new Object[0]);
+            if (lock.validate(stamp)) {
+                return array;
+            }
+        } catch (RuntimeException e) {
+            // Read a list that was being changed; decided under the lock
+        }
+        stamp = lock.readLock();
+        try {
+            return list.toArray(new Object[0]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String toString() {
+        long stamp = lock.readLock();
+        try {
+            return list.toString();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return snapshot().iterator();
+    }
+
+    // An unmodifiable copy of the elements at one point in time
+    @SuppressWarnings("unchecked")
+    public List<T> snapshot() {
+        return Collections.unmodifiableList(Arrays.asList((T[]) toArray()));
+    }
+
+    // Writes
+
+    @Override
+    public boolean add(T value) {
+        long stamp = lock.writeLock();
+        try {
+            return list.add(value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void add(int index, T value) {
+        long stamp = lock.writeLock();
+        try {
+            list.add(index, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void addFirst(T value) {
+        long stamp = lock.writeLock();
+        try {
+            list.addFirst(value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void addLast(T value) {
+        add(value);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection) {
+        List<T> values = new ArrayList<T>(collection);
+        long stamp = lock.writeLock();
+        try {
+            return list.addAll(values);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public T set(int index, T value) {
+        long stamp = lock.writeLock();
+        try {
+            return list.set(index, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public T remove(int index) {
+        long stamp = lock.writeLock();
+        try {
+            return list.remove(index);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        long stamp = lock.writeLock();
+        try {
+            return list.remove(o);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public T pollFirst() {
+        long stamp = lock.writeLock();
+        try {
+            return list.pollFirst();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public T pollLast() {
+        long stamp = lock.writeLock();
+        try {
+            return list.pollLast();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        long stamp = lock.writeLock();
+        try {
+            return list.removeIf(filter);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void sort(Comparator<? super T> comparator) {
+        long stamp = lock.writeLock();
+        try {
+            list.sort(comparator);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            list.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Runs a compound change under the write lock. The list must not be
+    // kept after update returns.
+    public <R> R update(Function<? super DoublyLinkedList<T>, R> change) {
+        long stamp = lock.writeLock();
+        try {
+            return change.apply(list);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+
+    // Helper Methods
+
+    private int search(Object o, boolean fromLast) {
+        long stamp = lock.tryOptimisticRead();
+        try {
+            int position = list.readIndexOf(o, fromLast);
+            if (lock.validate(stamp)) {
+                return position;
+            }
+        } catch (RuntimeException e) {
+            // Read a list that was being changed; decided under the lock
+        }
+        stamp = lock.readLock();
+        try {
+            return list.readIndexOf(o, fromLast);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
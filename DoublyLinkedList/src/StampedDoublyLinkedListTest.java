@@ -0,0 +1,101 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StampedDoublyLinkedListTest {
+
+    private StampedDoublyLinkedList<Integer> list;
+
+    @BeforeEach
+    void setUp() {
+        // [4 3 5 7 1 6]
+        list = new StampedDoublyLinkedList<Integer>(List.of(4, 3, 5, 7, 1, 6));
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", list.toString());
+    }
+
+    @Test
+    void testReads_withoutConcurrentWrites_matchTheList() {
+        assertEquals(5, list.get(2));
+        assertEquals(6, list.get(5));
+        assertEquals(3, list.indexOf(7));
+        assertEquals(-1, list.indexOf(9));
+        assertTrue(list.contains(1));
+        assertEquals(4, list.peekFirst());
+        assertEquals(6, list.peekLast());
+        assertEquals(6, list.size());
+        assertThrows(IndexOutOfBoundsException.class , () -> {
+            list.get(6);
+        });
+    }
+
+    @Test
+    void testWrites_changingList_areSeenByLaterReads() {
+        list.addFirst(9);
+        list.add(2, 8);
+        assertEquals(8, list.remove(2));
+        list.removeIf(value -> value > 6);
+        assertEquals(List.of(4, 3, 5, 1, 6), list.snapshot());
+        assertEquals(1, list.<Integer>update(inner -> inner.set(3, 2)));
+        assertEquals(2, list.lastIndexOf(5));
+        assertEquals(4, list.pollFirst());
+        list.clear();
+        assertNull(list.peekLast());
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    void testIterator_listChangedWhileIterating_keepsSnapshot() {
+        Iterator<Integer> iterator = list.iterator();
+        list.clear();
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(6, count);
+        assertThrows(UnsupportedOperationException.class , () -> {
+            iterator.remove();
+        });
+    }
+
+    @Test
+    void testReads_racingWriter_alwaysSeeAConsistentList() throws InterruptedException {
+        // The writer keeps the list as 64 consecutive numbers, shifting up
+        StampedDoublyLinkedList<Integer> window = new StampedDoublyLinkedList<Integer>();
+        for (int i = 0; i < 64; i++) {
+            window.add(i);
+        }
+        AtomicReference<String> failure = new AtomicReference<String>();
+        Thread writer = new Thread(() -> {
+            for (int i = 64; i < 200000; i++) {
+                int next = i;
+                window.update(inner -> {
+                    inner.addLast(next);
+                    return inner.removeFirst();
+                });
+            }
+        });
+        writer.start();
+        while (writer.isAlive() && failure.get() == null) {
+            int first = window.peekFirst();
+            Integer later = window.get(40);
+            Object[] values = window.toArray();
+            if (later < first + 40 || window.indexOf(later) > 40 || values.length != 64) {
+                failure.set("inconsistent read at " + first);
+            }
+            for (int i = 1; i < values.length; i++) {
+                if ((Integer) values[i] != (Integer) values[i - 1] + 1) {
+                    failure.set("torn snapshot at " + values[i]);
+                }
+            }
+        }
+        writer.join();
+        assertNull(failure.get());
+        assertEquals(199999, window.peekLast());
+    }
+}
@@ -0,0 +1,693 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.*;
+
+
+// Same List and Deque behaviour as DoublyLinkedList, but every node holds
+// a small array of elements. Scans walk arrays instead of chasing one
+// pointer per element and each element no longer pays for a node header.
+
+public class UnrolledDoublyLinkedList<T>
+        extends AbstractSequentialList<T>
+        implements List<T>, Deque<T>, Cloneable, Serializable {
+
+    private static final int DEFAULT_CHUNK_CAPACITY = 32;
+
+    private static class Chunk {
+        public Object[] data;
+        public int count;
+        public Chunk next;
+        public Chunk previous;
+
+        public Chunk (int capacity) {
+            data = new Object[capacity];
+        }
+    }
+
+    // An element's place: data[offset] of chunk. Returned instead of kept
+    // in fields so that reads write no shared state.
+    private static final class Position {
+        public final Chunk chunk;
+        public final int offset;
+
+        public Position (Chunk chunk, int offset) {
+            this.chunk = chunk;
+            this.offset = offset;
+        }
+    }
+
+    private transient Chunk nil;
+    private transient int size;
+    private final int chunkCapacity;
+
+    // Constructors
+    public UnrolledDoublyLinkedList() {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    public UnrolledDoublyLinkedList(int chunkCapacity) {
+        if (chunkCapacity < 2) {
+            throw new IllegalArgumentException("Chunk capacity must be at least 2");
+        }
+        this.chunkCapacity = chunkCapacity;
+        nil = new Chunk(0);
+        nil.previous = nil;
+        nil.next = nil;
+        size = 0;
+    }
+
+    public UnrolledDoublyLinkedList(Collection<? extends T> collection) {
+        this();
+        addAll(collection);
+    }
+
+    // Clonable Interface Override Requirements
+
+    @Override
+    public Object clone() {
+        UnrolledDoublyLinkedList<T> copy = new UnrolledDoublyLinkedList<T>(chunkCapacity);
+        Chunk chunk = nil.next;
+        while (chunk != nil) {
+            Chunk copyChunk = copy.linkChunkBefore(copy.nil);
+            System.arraycopy(chunk.data, 0, copyChunk.data, 0, chunk.count);
+            copyChunk.count = chunk.count;
+            chunk = chunk.next;
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    // List Interface Override Requirements
+
+    @Override
+    public boolean add(T t) {
+        addLast(t);
+        return true;
+    }
+
+    @Override
+    public void add(int index, T value) {
+        if (index == size) {
+            addLast(value);
+            return;
+        }
+        verifyIndex(index);
+        Position position = positionOf(index);
+        insertAt(position.chunk, position.offset, value);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection) {
+        boolean addedObjects = false;
+        for (T value : collection) {
+            addLast(value);
+            addedObjects = true;
+        }
+        return addedObjects;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> collection) {
+        boolean addedObjects = false;
+        ListIterator<T> iterator = listIterator(index);
+        for (T value : collection) {
+            iterator.add(value);
+            addedObjects = true;
+        }
+        return addedObjects;
+    }
+
+    @Override
+    public void clear() {
+        nil.next = nil;
+        nil.previous = nil;
+        size = 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public T get(int index) {
+        verifyIndex(index);
+        Position position = positionOf(index);
+        return elementAt(position.chunk, position.offset);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        int index = 0;
+        Chunk chunk = nil.next;
+        while (chunk != nil) {
+            Object[] data = chunk.data;
+            for (int i = 0; i < chunk.count; i++) {
+                if (o == null ? data[i] == null : o.equals(data[i])) {
+                    return index + i;
+                }
+            }
+            index += chunk.count;
+            chunk = chunk.next;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        int index = size;
+        Chunk chunk = nil.previous;
+        while (chunk != nil) {
+            index -= chunk.count;
+            Object[] data = chunk.data;
+            for (int i = chunk.count - 1; i >= 0; i--) {
+                if (o == null ? data[i] == null : o.equals(data[i])) {
+                    return index + i;
+                }
+            }
+            chunk = chunk.previous;
+        }
+        return -1;
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        if (index != size) {
+            verifyIndex(index);
+        }
+        return new ChunkIterator(index);
+    }
+
+    @Override
+    public T remove(int index) {
+        verifyIndex(index);
+        Position position = positionOf(index);
+        T value = elementAt(position.chunk, position.offset);
+        removeAt(position.chunk, position.offset);
+        return value;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        Chunk chunk = nil.next;
+        while (chunk != nil) {
+            Object[] data = chunk.data;
+            for (int i = 0; i < chunk.count; i++) {
+                if (o == null ? data[i] == null : o.equals(data[i])) {
+                    removeAt(chunk, i);
+                    return true;
+                }
+            }
+            chunk = chunk.next;
+        }
+        return false;
+    }
+
+    @Override
+    public T set(int index, T element) {
+        verifyIndex(index);
+        Position position = positionOf(index);
+        T oldData = elementAt(position.chunk, position.offset);
+        position.chunk.data[position.offset] = element;
+        return oldData;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        copyInto(array);
+        return array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> E[] toArray(E[] array) {
+        if (size > array.length) {
+            array = (E[]) Array.newInstance(array.getClass().getComponentType(), size);
+        } else if (size < array.length){
+            array[size] = null;
+        }
+        copyInto(array);
+        return array;
+    }
+
+    // Deque Interface Method Requirements
+    @Override
+    public void addFirst(T value) {
+        Chunk first = nil.next;
+        if (first == nil || first.count == chunkCapacity) {
+            first = linkChunkBefore(first);
+        }
+        System.arraycopy(first.data, 0, first.data, 1, first.count);
+        first.data[0] = value;
+        first.count++;
+        size++;
+    }
+
+    @Override
+    public void addLast(T value) {
+        Chunk last = nil.previous;
+        if (last == nil || last.count == chunkCapacity) {
+            last = linkChunkBefore(nil);
+        }
+        last.data[last.count++] = value;
+        size++;
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new Iterator<T>() {
+            private final ListIterator<T> iterator = listIterator(size);
+
+            public boolean hasNext() {
+                return iterator.hasPrevious();
+            }
+
+            public T next() {
+                return iterator.previous();
+            }
+
+            public void remove() {
+                iterator.remove();
+            }
+        };
+    }
+
+    @Override
+    public T element() {
+        return getFirst();
+    }
+
+    @Override
+    public T getFirst() {
+        if ( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        return elementAt(nil.next, 0);
+    }
+
+    @Override
+    public T getLast() {
+        if ( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        Chunk last = nil.previous;
+        return elementAt(last, last.count - 1);
+    }
+
+    @Override
+    public boolean offer(T value) {
+        return add(value);
+    }
+
+    @Override
+    public boolean offerFirst(T value) {
+        addFirst(value);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(T value) {
+        return add(value);
+    }
+
+    @Override
+    public T peek() {
+        if ( isEmpty() ) {
+            return null;
+        }
+        return getFirst();
+    }
+
+    @Override
+    public T peekFirst() {
+        return peek();
+    }
+
+    @Override
+    public T peekLast() {
+        if ( isEmpty() ) {
+            return null;
+        }
+        return getLast();
+    }
+
+    @Override
+    public T poll() {
+        if ( isEmpty() ) {
+            return null;
+        }
+        return removeFirst();
+    }
+
+    @Override
+    public T pollFirst() {
+        return poll();
+    }
+
+    @Override
+    public T pollLast() {
+        if ( isEmpty() ) {
+            return null;
+        }
+        return removeLast();
+    }
+
+    @Override
+    public T pop() {
+        return removeLast();
+    }
+
+    @Override
+    public void push(T value) {
+        addLast(value);
+    }
+
+    @Override
+    public T remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public T removeFirst() {
+        if( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        Chunk first = nil.next;
+        T value = elementAt(first, 0);
+        removeAt(first, 0);
+        return value;
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        return remove(o);
+    }
+
+    @Override
+    public T removeLast() {
+        if( isEmpty() ) {
+            throw new NoSuchElementException("The list is empty");
+        }
+        Chunk last = nil.previous;
+        T value = elementAt(last, last.count - 1);
+        removeAt(last, last.count - 1);
+        return value;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        Chunk chunk = nil.previous;
+        while (chunk != nil) {
+            Object[] data = chunk.data;
+            for (int i = chunk.count - 1; i >= 0; i--) {
+                if (o == null ? data[i] == null : o.equals(data[i])) {
+                    removeAt(chunk, i);
+                    return true;
+                }
+            }
+            chunk = chunk.previous;
+        }
+        return false;
+    }
+
+    // Extra Override Methods
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        Chunk chunk = nil.next;
+        while (chunk != nil) {
+            for (int i = 0; i < chunk.count; i++) {
+                if (output.length() > 0) {
+                    output.append(" ==> ");
+                }
+                output.append(chunk.data[i]);
+            }
+            chunk = chunk.next;
+        }
+        return output.toString();
+    }
+
+    public int getChunkCapacity() {
+        return chunkCapacity;
+    }
+
+
+    // Helper Methods
+
+    // Chunks hold elements in an Object[], so reading one back is unchecked
+    @SuppressWarnings("unchecked")
+    private T elementAt(Chunk chunk, int offset) {
+        return (T) chunk.data[offset];
+    }
+
+    private void verifyIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+    }
+
+    private Position positionOf(int index) {
+        Chunk chunk;
+        if (index < size / 2) {
+            chunk = nil.next;
+            while (index >= chunk.count) {
+                index -= chunk.count;
+                chunk = chunk.next;
+            }
+        } else {
+            index = size - 1 - index;
+            chunk = nil.previous;
+            while (index >= chunk.count) {
+                index -= chunk.count;
+                chunk = chunk.previous;
+            }
+            index = chunk.count - 1 - index;
+        }
+        return new Position(chunk, index);
+    }
+
+    private Chunk linkChunkBefore(Chunk successor) {
+        Chunk chunk = new Chunk(chunkCapacity);
+        chunk.next = successor;
+        chunk.previous = successor.previous;
+        successor.previous.next = chunk;
+        successor.previous = chunk;
+        return chunk;
+    }
+
+    private void unlinkChunk(Chunk chunk) {
+        chunk.next.previous = chunk.previous;
+        chunk.previous.next = chunk.next;
+    }
+
+    // Inserts value so that it ends up in front of chunk.data[offset].
+    // Returns the position just past the inserted element, in the chunk
+    // now holding it.
+    private Position insertAt(Chunk chunk, int offset, T value) {
+        if (offset == 0 && chunk.previous != nil && chunk.previous.count < chunkCapacity) {
+            Chunk previous = chunk.previous;
+            previous.data[previous.count++] = value;
+            size++;
+            return new Position(previous, previous.count);
+        }
+        if (chunk == nil) {
+            chunk = linkChunkBefore(nil);
+        } else if (chunk.count == chunkCapacity) {
+            int half = chunk.count / 2;
+            Chunk split = linkChunkBefore(chunk.next);
+            System.arraycopy(chunk.data, half, split.data, 0, chunk.count - half);
+            Arrays.fill(chunk.data, half, chunk.count, null);
+            split.count = chunk.count - half;
+            chunk.count = half;
+            if (offset > half) {
+                chunk = split;
+                offset -= half;
+            }
+        }
+        System.arraycopy(chunk.data, offset, chunk.data, offset + 1, chunk.count - offset);
+        chunk.data[offset] = value;
+        chunk.count++;
+        size++;
+        return new Position(chunk, offset + 1);
+    }
+
+    // Removes chunk.data[offset]. Returns the chunk that holds the element
+    // that followed it: the same chunk at the same offset, or the start of
+    // the next chunk when this one became empty.
+    private Chunk removeAt(Chunk chunk, int offset) {
+        System.arraycopy(chunk.data, offset + 1, chunk.data, offset, chunk.count - offset - 1);
+        chunk.data[--chunk.count] = null;
+        size--;
+        if (chunk.count == 0) {
+            unlinkChunk(chunk);
+            return chunk.next;
+        }
+        Chunk next = chunk.next;
+        if (next != nil && chunk.count + next.count <= chunkCapacity / 2) {
+            System.arraycopy(next.data, 0, chunk.data, chunk.count, next.count);
+            chunk.count += next.count;
+            unlinkChunk(next);
+        }
+        return chunk;
+    }
+
+    private void copyInto(Object[] array) {
+        int arrayIndex = 0;
+        Chunk chunk = nil.next;
+        while (chunk != nil) {
+            System.arraycopy(chunk.data, 0, array, arrayIndex, chunk.count);
+            arrayIndex += chunk.count;
+            chunk = chunk.next;
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        Chunk chunk = nil.next;
+        while (chunk != nil) {
+            for (int i = 0; i < chunk.count; i++) {
+                out.writeObject(chunk.data[i]);
+            }
+            chunk = chunk.next;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        nil = new Chunk(0);
+        nil.previous = nil;
+        nil.next = nil;
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            addLast((T) in.readObject());
+        }
+    }
+
+    // The cursor sits in front of chunk.data[offset]; offset may equal
+    // chunk.count, which is the same place as the start of the next chunk.
+    private final class ChunkIterator implements ListIterator<T> {
+        private Chunk chunk;
+        private int offset;
+        private Chunk lastChunk;
+        private int lastOffset;
+        private boolean lastWasNext;
+        private int position;
+
+        ChunkIterator(int index) {
+            if (index == size) {
+                chunk = nil;
+                offset = 0;
+            } else {
+                Position start = positionOf(index);
+                chunk = start.chunk;
+                offset = start.offset;
+            }
+            position = index;
+        }
+
+        public int nextIndex() {
+            return position;
+        }
+
+        public int previousIndex() {
+            return position - 1;
+        }
+
+        public boolean hasNext() {
+            return position < size;
+        }
+
+        @Override
+        public T next() {
+            if (position >= size) {
+                throw new NoSuchElementException("No next element exists.");
+            }
+            if (offset == chunk.count) {
+                chunk = chunk.next;
+                offset = 0;
+            }
+            lastChunk = chunk;
+            lastOffset = offset;
+            lastWasNext = true;
+            position++;
+            return elementAt(chunk, offset++);
+        }
+
+        public boolean hasPrevious() {
+            return position > 0;
+        }
+
+        @Override
+        public T previous() {
+            if (position <= 0) {
+                throw new NoSuchElementException("No previous element exists.");
+            }
+            if (offset == 0) {
+                chunk = chunk.previous;
+                offset = chunk.count;
+            }
+            offset--;
+            lastChunk = chunk;
+            lastOffset = offset;
+            lastWasNext = false;
+            position--;
+            return elementAt(chunk, offset);
+        }
+
+        @Override
+        public void remove() {
+            if (lastChunk == null) {
+                throw new NoSuchElementException("No element to remove");
+            }
+            Chunk following = removeAt(lastChunk, lastOffset);
+            if (following == lastChunk) {
+                chunk = lastChunk;
+                offset = lastOffset;
+            } else {
+                chunk = following;
+                offset = 0;
+            }
+            if (lastWasNext) {
+                position--;
+            }
+            lastChunk = null;
+        }
+
+        @Override
+        public void set(T value) {
+            if (lastChunk == null) {
+                throw new NoSuchElementException("No element to set");
+            }
+            lastChunk.data[lastOffset] = value;
+        }
+
+        @Override
+        public void add(T value) {
+            if (offset == chunk.count && chunk != nil) {
+                chunk = chunk.next;
+                offset = 0;
+            }
+            Position inserted = insertAt(chunk, offset, value);
+            chunk = inserted.chunk;
+            offset = inserted.offset;
+            position++;
+            lastChunk = null;
+        }
+    }
+}
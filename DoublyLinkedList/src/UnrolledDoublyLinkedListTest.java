@@ -0,0 +1,161 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnrolledDoublyLinkedListTest {
+
+    private UnrolledDoublyLinkedList<Integer> emptyList;
+    private UnrolledDoublyLinkedList<Integer> multipleElementList;
+
+    @BeforeEach
+    public void setUp()
+    {
+        // []
+        emptyList = new UnrolledDoublyLinkedList<Integer>(4);
+        assertEquals( "", emptyList.toString() );
+
+        // [4 3 5 7 1 6] spread over several chunks
+        multipleElementList = new UnrolledDoublyLinkedList<Integer>(4);
+        multipleElementList.addFirst(6);
+        multipleElementList.addFirst(1);
+        multipleElementList.addFirst(7);
+        multipleElementList.addFirst(5);
+        multipleElementList.addFirst(3);
+        multipleElementList.addFirst(4);
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString() );
+    }
+
+    @Test
+    void testConstructor_invalidChunkCapacity_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class , () -> {
+            new UnrolledDoublyLinkedList<Integer>(1);
+        });
+    }
+
+    @Test
+    void testAdd_addingElementsAcrossChunkBoundaries_keepsOrder() {
+        for (int i = 0; i < 10; i++) {
+            emptyList.add(i);
+        }
+        emptyList.add(3, 42);
+        emptyList.add(0, 41);
+        assertEquals(12, emptyList.size());
+        assertEquals("41 ==> 0 ==> 1 ==> 2 ==> 42 ==> 3 ==> 4 ==> 5 ==> 6 ==> 7 ==> 8 ==> 9", emptyList.toString());
+    }
+
+    @Test
+    void testGetAndSet_accessingElementsByIndex_returnsAndReplacesCorrectElements() {
+        assertEquals(7, multipleElementList.get(3));
+        assertEquals(6, multipleElementList.set(5, 2));
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 2", multipleElementList.toString());
+        assertThrows(IndexOutOfBoundsException.class , () -> {
+            multipleElementList.get(6);
+        });
+    }
+
+    @Test
+    void testSearch_searchingForElements_returnsCorrectPositions() {
+        multipleElementList.add(null);
+        multipleElementList.add(4);
+        assertTrue(multipleElementList.contains(null));
+        assertEquals(0, multipleElementList.indexOf(4));
+        assertEquals(7, multipleElementList.lastIndexOf(4));
+        assertEquals(6, multipleElementList.indexOf(null));
+        assertEquals(-1, multipleElementList.indexOf(9));
+    }
+
+    @Test
+    void testDequeOperations_removingFromBothEnds_returnsElementsInOrder() {
+        assertEquals(4, multipleElementList.removeFirst());
+        assertEquals(6, multipleElementList.removeLast());
+        assertEquals(3, multipleElementList.pollFirst());
+        assertEquals(1, multipleElementList.pollLast());
+        assertEquals("5 ==> 7", multipleElementList.toString());
+        assertNull(emptyList.pollFirst());
+        assertThrows(NoSuchElementException.class , () -> {
+            emptyList.removeFirst();
+        });
+    }
+
+    @Test
+    void testListIterator_addingAndRemovingWhileIterating_updatesListCorrectly() {
+        ListIterator<Integer> iterator = multipleElementList.listIterator(0);
+        while (iterator.hasNext()) {
+            int value = iterator.next();
+            if (value % 2 == 1) {
+                iterator.remove();
+            } else {
+                iterator.add(value * 10);
+            }
+        }
+        assertEquals("4 ==> 40 ==> 6 ==> 60", multipleElementList.toString());
+        assertEquals(4, iterator.nextIndex());
+    }
+
+    @Test
+    void testDescendingIterator_removingElements_walksBackwardsAndRemoves() {
+        Iterator<Integer> iterator = multipleElementList.descendingIterator();
+        assertEquals(6, iterator.next());
+        assertEquals(1, iterator.next());
+        iterator.remove();
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 6", multipleElementList.toString());
+    }
+
+    @Test
+    void testToArray_creatingArrayFromList_returnsAllElementsInOrder() {
+        Integer[] arrayFromList = multipleElementList.toArray(new Integer[0]);
+        assertArrayEquals(new Integer[] {4, 3, 5, 7, 1, 6}, arrayFromList);
+        assertArrayEquals(new Object[] {4, 3, 5, 7, 1, 6}, multipleElementList.toArray());
+    }
+
+    @Test
+    void testClone_modifyingClone_leavesOriginalUnchanged() {
+        UnrolledDoublyLinkedList<Integer> clone = (UnrolledDoublyLinkedList<Integer>) multipleElementList.clone();
+        clone.removeFirst();
+        clone.add(9);
+        assertEquals("4 ==> 3 ==> 5 ==> 7 ==> 1 ==> 6", multipleElementList.toString());
+        assertEquals("3 ==> 5 ==> 7 ==> 1 ==> 6 ==> 9", clone.toString());
+    }
+
+    @Test
+    void testEquals_comparingWithOtherList_comparesElements() {
+        ArrayList<Integer> array = new ArrayList<Integer>(multipleElementList);
+        assertEquals(array, multipleElementList);
+        assertEquals(multipleElementList, new UnrolledDoublyLinkedList<Integer>(array));
+    }
+
+    @Test
+    void testGet_concurrentReadersOfUnchangedList_returnCorrectElements() throws InterruptedException {
+        UnrolledDoublyLinkedList<Integer> list = new UnrolledDoublyLinkedList<Integer>(8);
+        for (int i = 0; i < 5000; i++) {
+            list.add(i);
+        }
+        AtomicInteger wrongReads = new AtomicInteger();
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            int seed = t;
+            readers[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 200000; i++) {
+                    int index = random.nextInt(5000);
+                    if (list.get(index) != index) {
+                        wrongReads.incrementAndGet();
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(0, wrongReads.get());
+    }
+}